@@ -0,0 +1,226 @@
+package hr.java.production.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import hr.java.production.enumeration.FilePath;
+import hr.java.production.generator.DatasetGenerator;
+import hr.java.production.model.Category;
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.Store;
+import hr.java.production.utility.FileUtils;
+import hr.java.production.utility.InventoryAnalyzer;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Reports how many bytes the loaders allocate per loaded entity and the analyzer queries allocate per call.
+ * <p>
+ * Allocations are read from {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes} before and after each
+ * operation, so only what the calling thread allocates is counted. Every operation is run {@value #WARM_UP_ROUNDS}
+ * times first, so the JIT compiler has removed the allocations it can, and the smallest of
+ * {@value #MEASURED_ROUNDS} measurements is taken, which filters out one-off allocations like class loading.
+ * <p>
+ * The input is generated by {@link DatasetGenerator} with its default seed into temporary directories, once with
+ * {@value #SMALL_CATALOG_ITEMS} and once with {@value #LARGE_CATALOG_ITEMS} items. A loader is measured on both,
+ * and the difference in bytes is divided by the difference in loaded entities, so the fixed cost of a call
+ * (opening the file, the reader buffers, the metrics events) cancels out and only the cost of an entity remains.
+ * The categories are the same in every generated catalog, so {@code inputCategories} is reported per call.
+ * The queries are measured per call on the larger catalog.
+ * <p>
+ * The {@code FileUtils} logger is turned off while measuring, so warnings about the generated data are neither
+ * counted nor printed. The output has one line per operation, {@code <operation> <bytes> bytes/<unit>}, always
+ * in the same order, and the benchmarks log to standard error, so the standard output of two runs can be compared
+ * line by line with {@code diff}. A value can still move by a few percent between runs, when the JIT compiler
+ * makes different inlining or escape analysis decisions, so a change should be confirmed by a second run.
+ * Run it with {@code java -jar Josipovic-6/benchmarks/target/benchmarks.jar allocation}.
+ */
+public class AllocationHarness {
+    public static final int WARM_UP_ROUNDS = 20;
+    public static final int MEASURED_ROUNDS = 5;
+    public static final int SMALL_CATALOG_ITEMS = 2_000;
+    public static final int LARGE_CATALOG_ITEMS = 4_000;
+
+    private static final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Allocation of one operation.
+     *
+     * @param operation    The name of the operation, e.g. {@code fileutils.inputItems}.
+     * @param unit         What the bytes are counted per, e.g. {@code item} or {@code call}.
+     * @param bytesPerUnit The allocated bytes divided by the number of units.
+     */
+    public record Result(String operation, String unit, long bytesPerUnit) {
+        @Override
+        public String toString() {
+            return operation + " " + bytesPerUnit + " bytes/" + unit;
+        }
+    }
+
+    /**
+     * The smallest allocation measured for an operation and the number of units it produced.
+     */
+    private record Measurement(long bytes, int units) {
+    }
+
+    /**
+     * A generated catalog and the entities loaded from it.
+     */
+    private record Catalog(Path directory, List<Category> categories, List<Item> items, List<Factory> factories,
+                           List<Store> stores) {
+        static Catalog generate(int itemCount) throws IOException {
+            Path directory = Files.createTempDirectory("allocation-dataset");
+            int containerCount = itemCount / DatasetGenerator.DEFAULT_ITEMS_PER_CONTAINER;
+            new DatasetGenerator(DatasetGenerator.DEFAULT_SEED, itemCount, containerCount, containerCount,
+                    DatasetGenerator.DEFAULT_ITEMS_PER_CONTAINER).generate(directory);
+            System.setProperty(FilePath.INPUT_DIRECTORY_PROPERTY, directory.toString());
+            List<Category> categories = FileUtils.inputCategories();
+            List<Item> items = FileUtils.inputItems(categories);
+            return new Catalog(directory, categories, items, FileUtils.inputFactories(items), FileUtils.inputStores(items));
+        }
+
+        void use() {
+            System.setProperty(FilePath.INPUT_DIRECTORY_PROPERTY, directory.toString());
+        }
+
+        void delete() throws IOException {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        measureAll().forEach(System.out::println);
+    }
+
+    /**
+     * Measures the loaders and every analyzer query on two generated catalogs.
+     *
+     * @return The results in a fixed order: loaders first, then queries.
+     * @throws IllegalStateException If the JVM does not support per-thread allocation accounting.
+     * @throws IOException           If a catalog cannot be generated or deleted.
+     */
+    public static List<Result> measureAll() throws IOException {
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM does not support measuring thread allocation.");
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        ch.qos.logback.classic.Logger fileUtilsLogger = ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(FileUtils.class);
+        Level fileUtilsLevel = fileUtilsLogger.getLevel();
+        fileUtilsLogger.setLevel(Level.OFF);
+        String inputDirectory = System.getProperty(FilePath.INPUT_DIRECTORY_PROPERTY);
+
+        List<Catalog> catalogs = new ArrayList<>();
+        try {
+            catalogs.add(Catalog.generate(SMALL_CATALOG_ITEMS));
+            catalogs.add(Catalog.generate(LARGE_CATALOG_ITEMS));
+            return measureAll(catalogs.get(0), catalogs.get(1));
+        } finally {
+            for (Catalog catalog : catalogs) {
+                catalog.delete();
+            }
+            if (inputDirectory == null) {
+                System.clearProperty(FilePath.INPUT_DIRECTORY_PROPERTY);
+            } else {
+                System.setProperty(FilePath.INPUT_DIRECTORY_PROPERTY, inputDirectory);
+            }
+            fileUtilsLogger.setLevel(fileUtilsLevel);
+        }
+    }
+
+    private static List<Result> measureAll(Catalog small, Catalog large) {
+        List<Result> results = new ArrayList<>();
+        large.use();
+        results.add(measure("fileutils.inputCategories", "call", () -> once(FileUtils.inputCategories())));
+        results.add(measurePerEntity("fileutils.inputItems", "item", small, large, catalog -> FileUtils.inputItems(catalog.categories()).size()));
+        results.add(measurePerEntity("fileutils.inputFactories", "factory", small, large, catalog -> FileUtils.inputFactories(catalog.items()).size()));
+        results.add(measurePerEntity("fileutils.inputStores", "store", small, large, catalog -> FileUtils.inputStores(catalog.items()).size()));
+
+        List<Item> items = large.items();
+        List<Factory> factories = large.factories();
+        List<Store> stores = large.stores();
+        results.add(measure("analyzer.calculateAverageItemPrice", "call", () -> once(InventoryAnalyzer.calculateAverageItemPrice(items))));
+        results.add(measure("analyzer.calculateAverageItemVolume", "call", () -> once(InventoryAnalyzer.calculateAverageItemVolume(items))));
+        results.add(measure("analyzer.calculateAveragePriceForAboveAverageVolumeItems", "call", () -> once(InventoryAnalyzer.calculateAveragePriceForAboveAverageVolumeItems(items))));
+        results.add(measure("analyzer.mapItemsByCategory", "call", () -> once(InventoryAnalyzer.mapItemsByCategory(items))));
+        results.add(measure("analyzer.mapItemsByInterfaceType", "call", () -> once(InventoryAnalyzer.mapItemsByInterfaceType(items))));
+        results.add(measure("analyzer.findFactoryWithLargestVolumeOfAnItem", "call", () -> once(InventoryAnalyzer.findFactoryWithLargestVolumeOfAnItem(factories))));
+        results.add(measure("analyzer.findStoreWithCheapestItem", "call", () -> once(findStoreWithCheapestItem(stores))));
+        results.add(measure("analyzer.findMostCaloricFood", "call", () -> once(InventoryAnalyzer.findMostCaloricFood(items))));
+        results.add(measure("analyzer.findHighestPricedFood", "call", () -> once(InventoryAnalyzer.findHighestPricedFood(items))));
+        results.add(measure("analyzer.findLaptopWithShortestWarranty", "call", () -> once(InventoryAnalyzer.findLaptopWithShortestWarranty(items))));
+        return results;
+    }
+
+    /**
+     * Measures the bytes the calling thread allocates per unit of an operation.
+     *
+     * @param operation The name of the operation.
+     * @param unit      What the operation returns the count of.
+     * @param action    Runs the operation once and returns the number of units it produced.
+     * @return The smallest measured allocation per unit.
+     */
+    public static Result measure(String operation, String unit, IntSupplier action) {
+        Measurement measurement = measureSmallest(action);
+        return new Result(operation, unit, measurement.bytes() / Math.max(1, measurement.units()));
+    }
+
+    /**
+     * Measures a loader on both catalogs and divides the difference in bytes by the difference in entities.
+     */
+    private static Result measurePerEntity(String operation, String unit, Catalog small, Catalog large,
+                                           ToIntFunction<Catalog> loader) {
+        small.use();
+        Measurement atSmall = measureSmallest(() -> loader.applyAsInt(small));
+        large.use();
+        Measurement atLarge = measureSmallest(() -> loader.applyAsInt(large));
+        if (atLarge.units() <= atSmall.units()) {
+            throw new IllegalStateException(operation + " loaded " + atLarge.units() + " " + unit + " entities from the larger catalog and "
+                    + atSmall.units() + " from the smaller one.");
+        }
+        return new Result(operation, unit, (atLarge.bytes() - atSmall.bytes()) / (atLarge.units() - atSmall.units()));
+    }
+
+    private static Measurement measureSmallest(IntSupplier action) {
+        long threadId = Thread.currentThread().threadId();
+        for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+            action.getAsInt();
+        }
+        long bytes = Long.MAX_VALUE;
+        int units = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            units = action.getAsInt();
+            bytes = Math.min(bytes, threadBean.getThreadAllocatedBytes(threadId) - before);
+        }
+        return new Measurement(bytes, units);
+    }
+
+    /**
+     * The query is deprecated, but {@code Main} still runs it, so its allocation is measured too.
+     */
+    @SuppressWarnings("deprecation")
+    private static Store findStoreWithCheapestItem(List<Store> stores) {
+        return InventoryAnalyzer.findStoreWithCheapestItem(stores);
+    }
+
+    /**
+     * Counts a query result as one call. Keeps the result reachable, so the query cannot be optimized away.
+     */
+    private static int once(Object result) {
+        return result == null ? 0 : 1;
+    }
+}
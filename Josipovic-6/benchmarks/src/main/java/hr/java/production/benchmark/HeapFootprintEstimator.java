@@ -0,0 +1,478 @@
+package hr.java.production.benchmark;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import hr.java.production.model.Address;
+import hr.java.production.model.Category;
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.NamedEntity;
+import hr.java.production.model.Store;
+import hr.java.production.utility.FileUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Estimates how much heap the loaded inventory graph takes, per entity type and per component type.
+ * <p>
+ * The estimator walks the graph from the given categories, items, factories and stores. Every entity
+ * ({@link NamedEntity} or {@link Address}) is counted once, under its own class, no matter how many
+ * containers refer to it. The other objects an entity reaches without passing through another entity,
+ * like its strings, {@code BigDecimal} values and item sets, belong to that entity. An object reached from
+ * a single entity is <em>exclusive</em> and makes up the retained size of the entity's type; an object
+ * reached from several entities, like a shared {@code BigDecimal} constant or a cached {@code Long},
+ * is <em>shared</em> and is reported separately.
+ * <p>
+ * Sizes are estimated from the field layout of each class and the header, reference and alignment sizes of
+ * the running JVM. The internals of {@code String}, {@code BigDecimal} and the JDK collections cannot be read
+ * without opening {@code java.base}, so they are sized from their public state: the nodes of a
+ * {@code TreeSet} and {@code HashSet} are counted from the set size, and the capacity of hash tables and
+ * array lists is derived from their default growth. Lazily cached values, like the string cache of a
+ * {@code BigDecimal}, are not counted. Transient fields, like change listeners, are not part of the catalog
+ * and are skipped.
+ * <p>
+ * Run it from the repository root with {@code java -jar Josipovic-6/benchmarks/target/benchmarks.jar footprint}.
+ */
+public class HeapFootprintEstimator {
+    private static final int ARRAY_LIST_DEFAULT_CAPACITY = 10;
+    private static final int HASH_TABLE_DEFAULT_CAPACITY = 16;
+
+    private final ObjectLayout layout;
+    private final Map<Class<?>, Long> shallowSizes = new HashMap<>();
+    private final Map<Class<?>, List<Field>> referenceFields = new HashMap<>();
+    private final Map<Object, Ownership> ownerships = new IdentityHashMap<>();
+    private final Set<Object> entities = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Deque<Object> pendingEntities = new ArrayDeque<>();
+
+    /**
+     * The object layout the sizes are estimated for.
+     *
+     * @param headerBytes      The size of an object header.
+     * @param arrayHeaderBytes The size of an array header, including the length.
+     * @param referenceBytes   The size of a reference field or array element.
+     * @param alignment        The alignment of object sizes.
+     */
+    public record ObjectLayout(int headerBytes, int arrayHeaderBytes, int referenceBytes, int alignment) {
+        /**
+         * Reads the layout of the running JVM, falling back to the 64-bit HotSpot defaults
+         * with compressed references if the VM options cannot be read.
+         *
+         * @return The layout of the running JVM.
+         */
+        public static ObjectLayout current() {
+            boolean compressedOops = true, compressedClassPointers = true;
+            int alignment = 8;
+            try {
+                HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+                compressedOops = Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+                compressedClassPointers = Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedClassPointers").getValue());
+                alignment = Integer.parseInt(hotSpot.getVMOption("ObjectAlignmentInBytes").getValue());
+            } catch (IllegalArgumentException | NullPointerException ignored) {
+                // Not a HotSpot VM; keep the defaults.
+            }
+            int headerBytes = compressedClassPointers ? 12 : 16;
+            return new ObjectLayout(headerBytes, headerBytes + 4, compressedOops ? 4 : 8, alignment);
+        }
+
+        long align(long size) {
+            return (size + alignment - 1) / alignment * alignment;
+        }
+    }
+
+    /**
+     * Footprint of the entities of one class.
+     *
+     * @param type          The simple name of the entity class.
+     * @param count         The number of entities.
+     * @param shallowBytes  The size of the entity objects themselves.
+     * @param retainedBytes The shallow size plus the size of the objects only these entities reach.
+     */
+    public record EntityFootprint(String type, long count, long shallowBytes, long retainedBytes) {
+    }
+
+    /**
+     * Footprint of the objects of one component type, like {@code String} or {@code TreeMap.Entry}.
+     *
+     * @param type           The name of the component type.
+     * @param objects        The number of objects.
+     * @param exclusiveBytes The size of the objects reached from a single entity.
+     * @param sharedBytes    The size of the objects reached from several entities.
+     */
+    public record ComponentFootprint(String type, long objects, long exclusiveBytes, long sharedBytes) {
+    }
+
+    /**
+     * The estimated footprint of an inventory graph.
+     *
+     * @param layout     The object layout the sizes were estimated for.
+     * @param entities   The footprint per entity class, ordered by name.
+     * @param components The footprint per component type, from the largest down.
+     */
+    public record HeapFootprint(ObjectLayout layout, List<EntityFootprint> entities, List<ComponentFootprint> components) {
+        public long exclusiveBytes() {
+            return entities.stream().mapToLong(EntityFootprint::retainedBytes).sum();
+        }
+
+        public long sharedBytes() {
+            return components.stream().mapToLong(ComponentFootprint::sharedBytes).sum();
+        }
+
+        /**
+         * Formats the footprint as two tables followed by the totals.
+         *
+         * @return The formatted report.
+         */
+        public String format() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("Heap footprint estimate (%d-byte headers, %d-byte references, %d-byte alignment)%n",
+                    layout.headerBytes(), layout.referenceBytes(), layout.alignment()));
+            report.append(String.format("%-24s %10s %14s %14s %14s%n", "Entity type", "Count", "Shallow", "Retained", "Retained/each"));
+            for (EntityFootprint entity : entities) {
+                report.append(String.format("%-24s %10d %14d %14d %14d%n", entity.type(), entity.count(), entity.shallowBytes(),
+                        entity.retainedBytes(), entity.retainedBytes() / Math.max(1, entity.count())));
+            }
+            report.append(String.format("%-24s %10s %14s %14s%n", "Component", "Objects", "Exclusive", "Shared"));
+            for (ComponentFootprint component : components) {
+                report.append(String.format("%-24s %10d %14d %14d%n", component.type(), component.objects(),
+                        component.exclusiveBytes(), component.sharedBytes()));
+            }
+            report.append(String.format("Exclusive %d bytes, shared %d bytes, total %d bytes%n",
+                    exclusiveBytes(), sharedBytes(), exclusiveBytes() + sharedBytes()));
+            return report.toString();
+        }
+    }
+
+    private HeapFootprintEstimator(ObjectLayout layout) {
+        this.layout = layout;
+    }
+
+    public static void main(String[] args) {
+        List<Category> categories = FileUtils.inputCategories();
+        List<Item> items = FileUtils.inputItems(categories);
+        List<Factory> factories = FileUtils.inputFactories(items);
+
+        System.out.println("Store item sets as TreeSet:");
+        System.out.print(estimate(categories, items, factories, FileUtils.inputStores(items)).format());
+        System.out.println();
+        System.out.println("Store item sets frozen:");
+        System.out.print(estimate(categories, items, factories, FileUtils.inputStores(items, true)).format());
+    }
+
+    /**
+     * Estimates the footprint of an inventory graph for the layout of the running JVM.
+     * Entities that are only reachable through the given ones, like factory addresses, are included.
+     *
+     * @param categories The categories.
+     * @param items      The items.
+     * @param factories  The factories.
+     * @param stores     The stores.
+     * @return The estimated footprint.
+     */
+    public static HeapFootprint estimate(Collection<Category> categories, Collection<Item> items,
+                                         Collection<Factory> factories, Collection<Store> stores) {
+        return estimate(ObjectLayout.current(), categories, items, factories, stores);
+    }
+
+    /**
+     * Estimates the footprint of an inventory graph for the given object layout.
+     *
+     * @param layout     The object layout to estimate the sizes for.
+     * @param categories The categories.
+     * @param items      The items.
+     * @param factories  The factories.
+     * @param stores     The stores.
+     * @return The estimated footprint.
+     */
+    public static HeapFootprint estimate(ObjectLayout layout, Collection<Category> categories, Collection<Item> items,
+                                         Collection<Factory> factories, Collection<Store> stores) {
+        HeapFootprintEstimator estimator = new HeapFootprintEstimator(layout);
+        List.of(categories, items, factories, stores).forEach(entities -> entities.forEach(estimator::addEntity));
+        while (!estimator.pendingEntities.isEmpty()) {
+            estimator.walkEntity(estimator.pendingEntities.poll());
+        }
+        return estimator.summarize();
+    }
+
+    private void addEntity(Object entity) {
+        if (entities.add(entity)) {
+            pendingEntities.add(entity);
+        }
+    }
+
+    private static boolean isEntity(Object object) {
+        return object instanceof NamedEntity || object instanceof Address;
+    }
+
+    private void walkEntity(Object entity) {
+        Deque<Reached> stack = new ArrayDeque<>();
+        List<Object> children = new ArrayList<>();
+        pushFieldValues(entity, children);
+        children.forEach(child -> stack.push(new Reached(child, false)));
+        while (!stack.isEmpty()) {
+            Reached reached = stack.pop();
+            Object object = reached.object();
+            if (isEntity(object)) {
+                addEntity(object);
+                continue;
+            }
+            children.clear();
+            Ownership ownership = ownerships.get(object);
+            if (ownership == null) {
+                ownership = new Ownership(entity, reached.throughShared());
+                ownerships.put(object, ownership);
+                measure(object, ownership.parts, children);
+            } else if (!ownership.shared && (ownership.owner != entity || reached.throughShared())) {
+                // Everything below a shared object is shared as well, so the walk goes on to mark it.
+                ownership.shared = true;
+                measure(object, new ArrayList<>(), children);
+            } else {
+                continue;
+            }
+            boolean shared = ownership.shared;
+            children.forEach(child -> stack.push(new Reached(child, shared)));
+        }
+    }
+
+    /**
+     * Adds the sizes of an object and the parts it owns without being able to expose them,
+     * and collects the objects it refers to.
+     */
+    private void measure(Object object, List<Part> parts, List<Object> children) {
+        Class<?> type = object.getClass();
+        switch (object) {
+            case String string -> {
+                boolean latin1 = string.chars().allMatch(c -> c <= 0xFF);
+                parts.add(new Part("String", 1, shallowSize(type) + arraySize(latin1 ? 1 : 2, string.length())));
+            }
+            case BigDecimal decimal -> {
+                long size = shallowSize(type);
+                int bitLength = decimal.unscaledValue().bitLength();
+                if (bitLength > 63) {
+                    size += shallowSize(java.math.BigInteger.class) + arraySize(4, (bitLength + 31) / 32);
+                }
+                parts.add(new Part("BigDecimal", 1, size));
+            }
+            case TreeSet<?> set -> {
+                parts.add(new Part("TreeSet", 1, shallowSize(type) + shallowSize(TreeMap.class)));
+                parts.add(new Part("TreeMap.Entry", set.size(), set.size() * shallowSize(jdkClass("java.util.TreeMap$Entry"))));
+                pushAll(set, children);
+                pushIfPresent(set.comparator(), children);
+            }
+            case HashSet<?> set -> {
+                boolean linked = set instanceof LinkedHashSet;
+                Class<?> map = linked ? LinkedHashMap.class : HashMap.class;
+                Class<?> node = jdkClass(linked ? "java.util.LinkedHashMap$Entry" : "java.util.HashMap$Node");
+                parts.add(new Part(type.getSimpleName(), 1, shallowSize(type) + shallowSize(map)));
+                parts.add(new Part(linked ? "LinkedHashMap.Entry" : "HashMap.Node", set.size(), set.size() * shallowSize(node)));
+                if (!set.isEmpty()) {
+                    parts.add(new Part("HashMap table", 1, arraySize(layout.referenceBytes(), hashTableCapacity(set.size()))));
+                }
+                pushAll(set, children);
+            }
+            case ArrayList<?> list -> {
+                parts.add(new Part("ArrayList", 1, shallowSize(type)));
+                if (!list.isEmpty()) {
+                    parts.add(new Part("Object[]", 1, arraySize(layout.referenceBytes(), arrayListCapacity(list.size()))));
+                }
+                pushAll(list, children);
+            }
+            case AtomicReferenceArray<?> array -> {
+                parts.add(new Part("AtomicReferenceArray", 1, shallowSize(type) + arraySize(layout.referenceBytes(), array.length())));
+                for (int i = 0; i < array.length(); i++) {
+                    pushIfPresent(array.get(i), children);
+                }
+            }
+            case Object[] array -> {
+                parts.add(new Part(type.getSimpleName(), 1, arraySize(layout.referenceBytes(), array.length)));
+                for (Object element : array) {
+                    pushIfPresent(element, children);
+                }
+            }
+            default -> {
+                parts.add(new Part(componentName(type), 1, type.isArray()
+                        ? arraySize(primitiveSize(type.getComponentType()), Array.getLength(object))
+                        : shallowSize(type)));
+                if (isOwnClass(type)) {
+                    pushFieldValues(object, children);
+                } else if (object instanceof Collection<?> collection) {
+                    pushAll(collection, children);
+                } else if (object instanceof Map<?, ?> map) {
+                    pushAll(map.keySet(), children);
+                    pushAll(map.values(), children);
+                }
+            }
+        }
+    }
+
+    private void pushFieldValues(Object object, List<Object> children) {
+        for (Field field : referenceFields(object.getClass())) {
+            try {
+                pushIfPresent(field.get(object), children);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Field " + field + " cannot be read.", e);
+            }
+        }
+    }
+
+    private static void pushAll(Collection<?> objects, List<Object> children) {
+        objects.forEach(object -> pushIfPresent(object, children));
+    }
+
+    private static void pushIfPresent(Object object, List<Object> children) {
+        // Enum constants and classes are static, so they are not part of the catalog.
+        if (object != null && !(object instanceof Enum<?>) && !(object instanceof Class<?>)) {
+            children.add(object);
+        }
+    }
+
+    /**
+     * Returns the readable non-static, non-transient reference fields of one of the production classes.
+     */
+    private List<Field> referenceFields(Class<?> type) {
+        return referenceFields.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && isOwnClass(c); c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!field.getType().isPrimitive() && !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+
+    /**
+     * Estimates the size of an instance from the declared instance fields of its class and superclasses.
+     */
+    private long shallowSize(Class<?> type) {
+        return shallowSizes.computeIfAbsent(type, t -> {
+            long size = layout.headerBytes();
+            for (Class<?> c = t; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        size += field.getType().isPrimitive() ? primitiveSize(field.getType()) : layout.referenceBytes();
+                    }
+                }
+            }
+            return layout.align(size);
+        });
+    }
+
+    private long arraySize(int elementBytes, int length) {
+        return layout.align(layout.arrayHeaderBytes() + (long) elementBytes * length);
+    }
+
+    private int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return layout.referenceBytes();
+    }
+
+    /**
+     * Replays the growth of a hash table created with the default capacity and load factor.
+     */
+    private static int hashTableCapacity(int size) {
+        int capacity = HASH_TABLE_DEFAULT_CAPACITY;
+        while (size > capacity * 3 / 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Replays the growth of an array list created with the default capacity.
+     */
+    private static int arrayListCapacity(int size) {
+        int capacity = ARRAY_LIST_DEFAULT_CAPACITY;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return capacity;
+    }
+
+    private static boolean isOwnClass(Class<?> type) {
+        return type.getName().startsWith("hr.java.production.");
+    }
+
+    private static String componentName(Class<?> type) {
+        String name = type.getName();
+        return type.isArray() || name.startsWith("java.") ? type.getSimpleName() : name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+    }
+
+    private static Class<?> jdkClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("JDK class " + name + " is not available.", e);
+        }
+    }
+
+    private HeapFootprint summarize() {
+        Map<String, long[]> entityTotals = new TreeMap<>();
+        for (Object entity : entities) {
+            long[] totals = entityTotals.computeIfAbsent(entity.getClass().getSimpleName(), k -> new long[3]);
+            long shallow = shallowSize(entity.getClass());
+            totals[0]++;
+            totals[1] += shallow;
+            totals[2] += shallow;
+        }
+
+        Map<String, long[]> componentTotals = new HashMap<>();
+        for (Ownership ownership : ownerships.values()) {
+            long bytes = 0;
+            for (Part part : ownership.parts) {
+                long[] totals = componentTotals.computeIfAbsent(part.type(), k -> new long[3]);
+                totals[0] += part.objects();
+                totals[ownership.shared ? 2 : 1] += part.bytes();
+                bytes += part.bytes();
+            }
+            if (!ownership.shared) {
+                entityTotals.get(ownership.owner.getClass().getSimpleName())[2] += bytes;
+            }
+        }
+
+        List<EntityFootprint> entityFootprints = new ArrayList<>();
+        entityTotals.forEach((type, totals) -> entityFootprints.add(new EntityFootprint(type, totals[0], totals[1], totals[2])));
+        List<ComponentFootprint> componentFootprints = new ArrayList<>();
+        componentTotals.forEach((type, totals) -> componentFootprints.add(new ComponentFootprint(type, totals[0], totals[1], totals[2])));
+        componentFootprints.sort(Comparator.comparingLong((ComponentFootprint c) -> c.exclusiveBytes() + c.sharedBytes()).reversed()
+                .thenComparing(ComponentFootprint::type));
+        return new HeapFootprint(layout, entityFootprints, componentFootprints);
+    }
+
+    /**
+     * The entity that first reached an object, whether another entity has reached it too,
+     * and the sizes of the object and the parts it owns.
+     */
+    private static final class Ownership {
+        private final Object owner;
+        private final List<Part> parts = new ArrayList<>(2);
+        private boolean shared;
+
+        Ownership(Object owner, boolean shared) {
+            this.owner = owner;
+            this.shared = shared;
+        }
+    }
+
+    private record Reached(Object object, boolean throughShared) {
+    }
+
+    private record Part(String type, long objects, long bytes) {
+    }
+}
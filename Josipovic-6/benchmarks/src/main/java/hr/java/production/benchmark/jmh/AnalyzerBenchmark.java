@@ -0,0 +1,100 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.index.ItemRangeIndexes;
+import hr.java.production.model.Category;
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.Store;
+import hr.java.production.utility.InventoryAggregateView;
+import hr.java.production.utility.InventoryAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every query of {@link InventoryAnalyzer} over a synthetic catalog, with one store and one factory per 20 items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class AnalyzerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Item> items;
+    private List<Store> stores;
+    private List<Factory> factories;
+    private InventoryAggregateView aggregateView;
+    private ItemRangeIndexes indexes;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = BenchmarkData.generate(size, BenchmarkData.ITEMS_PER_CONTAINER, size);
+        items = data.items;
+        stores = data.stores;
+        factories = data.factories;
+        aggregateView = InventoryAggregateView.of(items, stores);
+        indexes = ItemRangeIndexes.of(items);
+    }
+
+    @Benchmark
+    public BigDecimal calculateAverageItemPrice() {
+        return InventoryAnalyzer.calculateAverageItemPrice(items);
+    }
+
+    @Benchmark
+    public BigDecimal calculateAverageItemVolume() {
+        return InventoryAnalyzer.calculateAverageItemVolume(items);
+    }
+
+    @Benchmark
+    public BigDecimal calculateAveragePriceForAboveAverageVolumeItems() {
+        return InventoryAnalyzer.calculateAveragePriceForAboveAverageVolumeItems(items);
+    }
+
+    @Benchmark
+    public BigDecimal calculateAveragePriceForAboveAverageVolumeItemsIndexed() {
+        return InventoryAnalyzer.calculateAveragePriceForAboveAverageVolumeItems(aggregateView, indexes);
+    }
+
+    @Benchmark
+    public Map<Category, List<Item>> mapItemsByCategory() {
+        return InventoryAnalyzer.mapItemsByCategory(items);
+    }
+
+    @Benchmark
+    public Map<String, List<Item>> mapItemsByInterfaceType() {
+        return InventoryAnalyzer.mapItemsByInterfaceType(items);
+    }
+
+    @Benchmark
+    public Factory findFactoryWithLargestVolumeOfAnItem() {
+        return InventoryAnalyzer.findFactoryWithLargestVolumeOfAnItem(factories);
+    }
+
+    @Benchmark
+    public Store findStoreWithCheapestItem() {
+        return InventoryAnalyzer.findStoreWithCheapestItem(stores);
+    }
+
+    @Benchmark
+    public Item findMostCaloricFood() {
+        return InventoryAnalyzer.findMostCaloricFood(items);
+    }
+
+    @Benchmark
+    public Item findHighestPricedFood() {
+        return InventoryAnalyzer.findHighestPricedFood(items);
+    }
+
+    @Benchmark
+    public Item findLaptopWithShortestWarranty() {
+        return InventoryAnalyzer.findLaptopWithShortestWarranty(items);
+    }
+}
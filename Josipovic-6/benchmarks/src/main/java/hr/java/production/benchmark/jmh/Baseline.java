@@ -0,0 +1,155 @@
+package hr.java.production.benchmark.jmh;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The committed results {@link RegressionGate} compares against, stored as JSON:
+ * <pre>
+ * {
+ *   "jvm": "21.0.1+12-LTS",
+ *   "scenarios": {
+ *     "loadStores": {"throughput": 61.52, "throughputError": 2.31, "allocation": 9843712.0}
+ *   }
+ * }
+ * </pre>
+ * Throughput is in operations per second, with the half-width of its 99.9% confidence interval as reported by JMH,
+ * and allocation in bytes per operation. The reader only understands
+ * the subset of JSON the writer produces: objects, strings without escapes other than {@code \"} and
+ * {@code \\}, and numbers.
+ *
+ * @param jvm       The version of the JVM the baseline was measured on.
+ * @param scenarios The results per scenario, ordered by name.
+ */
+record Baseline(String jvm, Map<String, Result> scenarios) {
+
+    /**
+     * The result of one scenario.
+     *
+     * @param throughput      Operations per second.
+     * @param throughputError The half-width of the 99.9% confidence interval of the throughput.
+     * @param allocation      Bytes allocated per operation.
+     */
+    record Result(double throughput, double throughputError, double allocation) {
+    }
+
+    static Baseline read(Path file) throws IOException {
+        Parser parser = new Parser(Files.readString(file, StandardCharsets.UTF_8));
+        Map<String, Object> root = parser.readObject();
+        if (!(root.get("scenarios") instanceof Map<?, ?> scenarioValues)) {
+            throw new IOException("The baseline " + file + " has no scenarios.");
+        }
+        Map<String, Result> scenarios = new TreeMap<>();
+        for (Map.Entry<?, ?> entry : scenarioValues.entrySet()) {
+            if (!(entry.getValue() instanceof Map<?, ?> values)
+                    || !(values.get("throughput") instanceof Double throughput)
+                    || !(values.get("throughputError") instanceof Double throughputError)
+                    || !(values.get("allocation") instanceof Double allocation)) {
+                throw new IOException("The scenario " + entry.getKey() + " in " + file + " needs a throughput, its error and an allocation.");
+            }
+            scenarios.put((String) entry.getKey(), new Result(throughput, throughputError, allocation));
+        }
+        return new Baseline(String.valueOf(root.get("jvm")), scenarios);
+    }
+
+    void write(Path file) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"jvm\": ").append(quote(jvm)).append(",\n");
+        json.append("  \"scenarios\": {\n");
+        int remaining = scenarios.size();
+        for (Map.Entry<String, Result> entry : new TreeMap<>(scenarios).entrySet()) {
+            json.append(String.format(Locale.ROOT, "    %s: {\"throughput\": %.3f, \"throughputError\": %.3f, \"allocation\": %.1f}",
+                    quote(entry.getKey()), entry.getValue().throughput(), entry.getValue().throughputError(), entry.getValue().allocation()));
+            json.append(--remaining > 0 ? ",\n" : "\n");
+        }
+        json.append("  }\n");
+        json.append("}\n");
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static final class Parser {
+        private final String json;
+        private int position;
+
+        Parser(String json) {
+            this.json = json;
+        }
+
+        Map<String, Object> readObject() throws IOException {
+            Map<String, Object> object = new TreeMap<>();
+            expect('{');
+            if (peek() == '}') {
+                position++;
+                return object;
+            }
+            do {
+                String key = readString();
+                expect(':');
+                object.put(key, readValue());
+            } while (consumeIf(','));
+            expect('}');
+            return object;
+        }
+
+        private Object readValue() throws IOException {
+            char next = peek();
+            if (next == '{') {
+                return readObject();
+            } else if (next == '"') {
+                return readString();
+            }
+            int start = position;
+            while (position < json.length() && "+-.0123456789eE".indexOf(json.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.parseDouble(json.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw new IOException("Expected a value at position " + start + ".", e);
+            }
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < json.length() && json.charAt(position) != '"') {
+                char c = json.charAt(position++);
+                value.append(c == '\\' && position < json.length() ? json.charAt(position++) : c);
+            }
+            expect('"');
+            return value.toString();
+        }
+
+        private boolean consumeIf(char expected) {
+            if (peek() == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (peek() != expected) {
+                throw new IOException("Expected '" + expected + "' at position " + position + ".");
+            }
+            position++;
+        }
+
+        private char peek() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+            return position < json.length() ? json.charAt(position) : '\0';
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.enumeration.Cities;
+import hr.java.production.model.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Synthetic catalogs of a given size for the benchmarks, reproducible from a seed.
+ * <p>
+ * The items are a mix of plain items, pizzas, chicken nuggets and laptops in three categories, with random
+ * dimensions, prices and discounts. Every store and factory holds {@link #ITEMS_PER_CONTAINER} random items.
+ */
+class BenchmarkData {
+    static final int ITEMS_PER_CONTAINER = 20;
+
+    final List<Category> categories;
+    final List<Item> items;
+    final List<Store> stores;
+    final List<Factory> factories;
+
+    private BenchmarkData(List<Category> categories, List<Item> items, List<Store> stores, List<Factory> factories) {
+        this.categories = categories;
+        this.items = items;
+        this.stores = stores;
+        this.factories = factories;
+    }
+
+    /**
+     * Generates a catalog with one store and one factory per {@code containerRatio} items.
+     *
+     * @param itemCount      The number of items.
+     * @param containerRatio The number of items per store and per factory.
+     * @param seed           The seed of the random values.
+     * @return The generated catalog.
+     */
+    static BenchmarkData generate(int itemCount, int containerRatio, long seed) {
+        Random random = new Random(seed);
+        List<Category> categories = List.of(
+                new Category(1L, "Food", "Edible items"),
+                new Category(2L, "Technical equipment", "Laptops"),
+                new Category(3L, "Literature", "Books"));
+
+        List<Item> items = new ArrayList<>(itemCount);
+        for (long id = 1; id <= itemCount; id++) {
+            items.add(generateItem(id, categories, random));
+        }
+
+        int containerCount = Math.max(1, itemCount / containerRatio);
+        List<Store> stores = new ArrayList<>(containerCount);
+        List<Factory> factories = new ArrayList<>(containerCount);
+        Cities[] cities = Cities.values();
+        for (long id = 1; id <= containerCount; id++) {
+            stores.add(new Store(id, "Store " + id, "www.store" + id + ".hr", randomItems(items, random)));
+            Address address = new Address.Builder()
+                    .atStreet("Ulica " + id)
+                    .atHouseNumber(Long.toString(id))
+                    .atCity(cities[random.nextInt(cities.length)])
+                    .build();
+            factories.add(new Factory(id, "Factory " + id, address, randomItems(items, random)));
+        }
+        return new BenchmarkData(categories, items, stores, factories);
+    }
+
+    private static Item generateItem(long id, List<Category> categories, Random random) {
+        BigDecimal width = decimal(random, 1, 100), height = decimal(random, 1, 100), length = decimal(random, 1, 100);
+        BigDecimal productionCost = decimal(random, 1, 1000);
+        BigDecimal sellingPrice = productionCost.add(decimal(random, 1, 1000));
+        Discount discount = new Discount(BigDecimal.valueOf(random.nextInt(51)));
+        String name = "Item " + id;
+        return switch (random.nextInt(4)) {
+            case 0 -> new Pizza(id, name, categories.get(0), width, height, length, productionCost, sellingPrice, discount, decimal(random, 1, 3));
+            case 1 -> new ChickenNuggets(id, name, categories.get(0), width, height, length, productionCost, sellingPrice, discount, decimal(random, 1, 3));
+            case 2 -> new Laptop(id, name, categories.get(1), width, height, length, productionCost, sellingPrice, discount, 1 + random.nextInt(5));
+            default -> new Item(id, name, categories.get(2), width, height, length, productionCost, sellingPrice, discount);
+        };
+    }
+
+    private static Set<Item> randomItems(List<Item> items, Random random) {
+        Set<Item> chosen = new HashSet<>();
+        int count = Math.min(ITEMS_PER_CONTAINER, items.size());
+        while (chosen.size() < count) {
+            chosen.add(items.get(random.nextInt(items.size())));
+        }
+        return chosen;
+    }
+
+    /**
+     * Returns a random number with two decimal places between {@code min} inclusive and {@code max} exclusive.
+     */
+    private static BigDecimal decimal(Random random, int min, int max) {
+        return BigDecimal.valueOf(min * 100L + random.nextInt((max - min) * 100), 2);
+    }
+}
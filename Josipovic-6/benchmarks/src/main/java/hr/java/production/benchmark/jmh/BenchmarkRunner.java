@@ -0,0 +1,48 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.benchmark.AllocationHarness;
+import hr.java.production.benchmark.HeapFootprintEstimator;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result comes with its allocation rate
+ * ({@code gc.alloc.rate.norm} is the number of bytes allocated per operation).
+ * <p>
+ * Accepts the usual JMH command line, e.g. {@code SortBenchmark -p size=1000,100000} to select benchmarks
+ * and dataset sizes. The first argument can also select a tool instead of JMH:
+ * <ul>
+ *     <li>{@code gate} runs {@link RegressionGate}, which compares the regression scenarios with the committed baseline,</li>
+ *     <li>{@code allocation} runs {@link AllocationHarness}, which prints the bytes allocated per entity and per query,</li>
+ *     <li>{@code footprint} runs {@link HeapFootprintEstimator}, which prints the heap taken by the loaded inventory.</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        String tool = args.length > 0 ? args[0] : "";
+        String[] toolArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+        switch (tool) {
+            case "gate" -> RegressionGate.main(toolArgs);
+            case "allocation" -> AllocationHarness.main(toolArgs);
+            case "footprint" -> HeapFootprintEstimator.main(toolArgs);
+            default -> runBenchmarks(args);
+        }
+    }
+
+    private static void runBenchmarks(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
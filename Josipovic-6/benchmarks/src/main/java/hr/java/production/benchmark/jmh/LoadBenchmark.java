@@ -0,0 +1,71 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.enumeration.FilePath;
+import hr.java.production.generator.DatasetGenerator;
+import hr.java.production.model.Category;
+import hr.java.production.model.Item;
+import hr.java.production.model.Store;
+import hr.java.production.utility.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reading catalog files with {@link FileUtils}, for catalogs of {@code size} items written by
+ * {@link DatasetGenerator} with its default seed into a temporary directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"1000", "10000", "20000"})
+    private int size;
+
+    private Path dataset;
+    private List<Category> categories;
+    private List<Item> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataset = Files.createTempDirectory("load-dataset");
+        int containerCount = Math.max(1, size / DatasetGenerator.DEFAULT_ITEMS_PER_CONTAINER);
+        new DatasetGenerator(DatasetGenerator.DEFAULT_SEED, size, containerCount, containerCount,
+                DatasetGenerator.DEFAULT_ITEMS_PER_CONTAINER).generate(dataset);
+        System.setProperty(FilePath.INPUT_DIRECTORY_PROPERTY, dataset.toString());
+
+        categories = FileUtils.inputCategories();
+        items = FileUtils.inputItems(categories);
+        if (items.size() != size) {
+            throw new IllegalStateException("Read " + items.size() + " of " + size + " generated items.");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.clearProperty(FilePath.INPUT_DIRECTORY_PROPERTY);
+        try (Stream<Path> files = Files.walk(dataset)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Item> inputItems() {
+        return FileUtils.inputItems(categories);
+    }
+
+    @Benchmark
+    public List<Store> inputStores() {
+        return FileUtils.inputStores(items);
+    }
+}
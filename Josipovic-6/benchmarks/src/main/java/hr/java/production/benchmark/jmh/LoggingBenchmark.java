@@ -0,0 +1,65 @@
+package hr.java.production.benchmark.jmh;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+import hr.java.production.model.Category;
+import hr.java.production.model.Item;
+import hr.java.production.utility.FileUtils;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading {@code items.txt} through the logging pipeline of the production {@code logback.xml}.
+ * <p>
+ * With the {@code FileUtils} logger at {@code WARN} the item logging is disabled, at {@code INFO} every edible
+ * item is logged through the configured appenders. The difference between the two is the cost of the logging.
+ * The log file is written where the production configuration puts it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final String PRODUCTION_CONFIGURATION = "Josipovic-6/src/main/resources/logback.xml";
+
+    @Param({"WARN", "INFO"})
+    public String fileUtilsLevel;
+
+    private List<Category> categories;
+
+    @Setup
+    public void setUp() throws JoranException {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(new File(PRODUCTION_CONFIGURATION));
+        context.getLogger(FileUtils.class).setLevel(Level.toLevel(fileUtilsLevel));
+
+        categories = FileUtils.inputCategories();
+        if (categories.isEmpty()) {
+            throw new IllegalStateException("No categories were read. Run the benchmarks from the repository root.");
+        }
+    }
+
+    /**
+     * Stops the appenders, so the events still queued by the asynchronous appender are written before the fork exits.
+     */
+    @TearDown
+    public void tearDown() {
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public List<Item> inputItems() {
+        return FileUtils.inputItems(categories);
+    }
+}
@@ -0,0 +1,135 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.enumeration.FilePath;
+import hr.java.production.generator.DatasetGenerator;
+import hr.java.production.model.Category;
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.Store;
+import hr.java.production.sort.VolumeSorter;
+import hr.java.production.utility.FileUtils;
+import hr.java.production.utility.InventoryAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The fixed scenarios {@link RegressionGate} compares against the baseline: loading, sorting, analyzing and
+ * serializing a catalog written by {@link DatasetGenerator} with its default seed.
+ * <p>
+ * Loading the factories and stores goes through {@code FileUtils.processItemChoices}, and loading the stores
+ * through {@link VolumeSorter#toSortedSet}. The scenarios are part of the baseline, so renaming or changing one
+ * requires the baseline to be updated. The generated catalog and the serialized stores are written to temporary
+ * files, so the application's files are left untouched.
+ * <p>
+ * Every scenario runs in {@value #FORKS} forks, so the confidence interval JMH reports for the throughput
+ * includes the variation between JVM runs, not only between the iterations of one run. Each fork measures
+ * {@value #MEASURED_ITERATIONS} iterations, which keeps the interval narrow enough for the gate to notice a drop
+ * not much larger than its tolerance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = RegressionBenchmark.MEASURED_ITERATIONS, time = 1)
+@Fork(value = RegressionBenchmark.FORKS, jvmArgsAppend = "-Xmx1g")
+public class RegressionBenchmark {
+    static final int FORKS = 3;
+    static final int MEASURED_ITERATIONS = 6;
+    static final int ITEM_COUNT = 20_000;
+    static final int CONTAINER_COUNT = ITEM_COUNT / DatasetGenerator.DEFAULT_ITEMS_PER_CONTAINER;
+
+    private Path dataset;
+    private Path serializedStores;
+    private List<Category> categories;
+    private List<Item> items;
+    private List<Factory> factories;
+    private List<Store> stores;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataset = Files.createTempDirectory("regression-dataset");
+        new DatasetGenerator(DatasetGenerator.DEFAULT_SEED, ITEM_COUNT, CONTAINER_COUNT, CONTAINER_COUNT,
+                DatasetGenerator.DEFAULT_ITEMS_PER_CONTAINER).generate(dataset);
+        System.setProperty(FilePath.INPUT_DIRECTORY_PROPERTY, dataset.toString());
+
+        categories = FileUtils.inputCategories();
+        items = FileUtils.inputItems(categories);
+        factories = FileUtils.inputFactories(items);
+        stores = FileUtils.inputStores(items);
+        if (items.size() != ITEM_COUNT) {
+            throw new IllegalStateException("Read " + items.size() + " of " + ITEM_COUNT + " generated items.");
+        }
+        serializedStores = dataset.resolve("serialized-stores.bin");
+        FileUtils.serializeList(stores, serializedStores);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.clearProperty(FilePath.INPUT_DIRECTORY_PROPERTY);
+        try (Stream<Path> files = Files.walk(dataset)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Item> loadItems() {
+        return FileUtils.inputItems(categories);
+    }
+
+    @Benchmark
+    public List<Factory> loadFactories() {
+        return FileUtils.inputFactories(items);
+    }
+
+    @Benchmark
+    public List<Store> loadStores() {
+        return FileUtils.inputStores(items);
+    }
+
+    @Benchmark
+    public List<Item> sortByVolume() {
+        return VolumeSorter.sortWithPrecomputedKeys(items);
+    }
+
+    @Benchmark
+    public BigDecimal analyzeAveragePriceForAboveAverageVolumeItems() {
+        return InventoryAnalyzer.calculateAveragePriceForAboveAverageVolumeItems(items);
+    }
+
+    @Benchmark
+    public Map<Category, List<Item>> analyzeItemsByCategory() {
+        return InventoryAnalyzer.mapItemsByCategory(items);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Store analyzeStoreWithCheapestItem() {
+        return InventoryAnalyzer.findStoreWithCheapestItem(stores);
+    }
+
+    @Benchmark
+    public Factory analyzeFactoryWithLargestVolumeOfAnItem() {
+        return InventoryAnalyzer.findFactoryWithLargestVolumeOfAnItem(factories);
+    }
+
+    @Benchmark
+    public void serializeStores() {
+        FileUtils.serializeList(stores, serializedStores);
+    }
+
+    @Benchmark
+    public List<Store> deserializeStores() {
+        return FileUtils.deserializeList(serializedStores);
+    }
+}
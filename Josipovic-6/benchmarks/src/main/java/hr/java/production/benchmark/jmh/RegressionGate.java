@@ -0,0 +1,180 @@
+package hr.java.production.benchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs the {@link RegressionBenchmark} scenarios and compares their throughput and allocation with
+ * the committed baseline, so a slower or more allocating hot path fails the build instead of going unnoticed.
+ * <p>
+ * A scenario regresses when its throughput drops more than the throughput tolerance below the baseline and the
+ * confidence intervals JMH reports for both runs do not overlap, or when it allocates more than the allocation
+ * tolerance (and at least {@value #ALLOCATION_SLACK_BYTES} bytes) per operation above it. A scenario that is in the baseline but was not run counts as a regression too; a new
+ * scenario is only reported. The comparison is printed as a table, and the process exits with status 1 if
+ * anything regressed.
+ * <p>
+ * With wide confidence intervals the throughput has to drop by more than the tolerance before the intervals
+ * separate, so the table prints, for every scenario, the drop that would actually fail the gate: the larger of the
+ * tolerance and the sum of both errors relative to the baseline.
+ * <p>
+ * Options, after the {@code gate} mode argument of {@link BenchmarkRunner}:
+ * <ul>
+ *     <li>{@code --baseline <file>}: the baseline to compare with, {@value #DEFAULT_BASELINE} by default,</li>
+ *     <li>{@code --update}: write the measured results as the new baseline instead of comparing,</li>
+ *     <li>{@code --throughput-tolerance <fraction>}: {@value #DEFAULT_THROUGHPUT_TOLERANCE} by default,</li>
+ *     <li>{@code --allocation-tolerance <fraction>}: {@value #DEFAULT_ALLOCATION_TOLERANCE} by default.</li>
+ * </ul>
+ * The baseline depends on the machine, so it should be updated on the machine the gate runs on.
+ */
+public class RegressionGate {
+    public static final String DEFAULT_BASELINE = "Josipovic-6/benchmarks/baseline.json";
+    // On a busy machine the throughput of a scenario moved by up to 38% between single-fork runs and by up to 46%
+    // between three-fork runs without a code change, so a drop only counts when it is also outside both confidence
+    // intervals, which makes the applied threshold wider than this tolerance. The allocation per operation is exact.
+    public static final double DEFAULT_THROUGHPUT_TOLERANCE = 0.20;
+    public static final double DEFAULT_ALLOCATION_TOLERANCE = 0.05;
+    public static final int ALLOCATION_SLACK_BYTES = 64;
+
+    private static final String ALLOCATION_RESULT = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path baselineFile = Path.of(DEFAULT_BASELINE);
+        boolean update = false;
+        double throughputTolerance = DEFAULT_THROUGHPUT_TOLERANCE, allocationTolerance = DEFAULT_ALLOCATION_TOLERANCE;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--baseline" -> baselineFile = Path.of(optionValue(args, ++i));
+                case "--update" -> update = true;
+                case "--throughput-tolerance" -> throughputTolerance = Double.parseDouble(optionValue(args, ++i));
+                case "--allocation-tolerance" -> allocationTolerance = Double.parseDouble(optionValue(args, ++i));
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // Read the baseline first, so a broken file fails before the benchmarks have run.
+        Baseline baseline = update ? null : Baseline.read(baselineFile);
+        Options options = new OptionsBuilder()
+                .include(RegressionBenchmark.class.getName() + "\\.")
+                .addProfiler(GCProfiler.class)
+                .build();
+        Baseline measured = new Baseline(System.getProperty("java.runtime.version"), results(new Runner(options).run()));
+
+        if (update) {
+            measured.write(baselineFile);
+            System.out.println("Wrote " + measured.scenarios().size() + " scenarios to " + baselineFile);
+            return;
+        }
+        List<String> regressions = compare(baseline, measured, throughputTolerance, allocationTolerance);
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println(regressions.size() + " regression(s) against " + baselineFile + ":");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.println("No regressions against " + baselineFile + ".");
+    }
+
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Option " + args[index - 1] + " needs a value.");
+        }
+        return args[index];
+    }
+
+    private static Map<String, Baseline.Result> results(Collection<RunResult> runResults) {
+        Map<String, Baseline.Result> results = new TreeMap<>();
+        for (RunResult runResult : runResults) {
+            String benchmark = runResult.getParams().getBenchmark();
+            Result<?> allocation = runResult.getSecondaryResults().get(ALLOCATION_RESULT);
+            if (allocation == null) {
+                throw new IllegalStateException("The GC profiler reported no " + ALLOCATION_RESULT + " for " + benchmark + ".");
+            }
+            results.put(benchmark.substring(benchmark.lastIndexOf('.') + 1),
+                    new Baseline.Result(runResult.getPrimaryResult().getScore(),
+                            scoreError(runResult.getPrimaryResult()), allocation.getScore()));
+        }
+        return results;
+    }
+
+    private static double scoreError(Result<?> result) {
+        // JMH reports no error for fewer than three measured iterations.
+        double error = result.getScoreError();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * Prints the baseline and measured results side by side and returns a description of every regression.
+     */
+    static List<String> compare(Baseline baseline, Baseline measured, double throughputTolerance, double allocationTolerance) {
+        List<String> regressions = new ArrayList<>();
+        Set<String> scenarios = new TreeSet<>(baseline.scenarios().keySet());
+        scenarios.addAll(measured.scenarios().keySet());
+
+        System.out.println();
+        System.out.printf("Baseline measured on %s, compared on %s%n", baseline.jvm(), measured.jvm());
+        System.out.printf("%-48s %20s %20s %8s %8s   %14s %14s %8s%n", "Scenario",
+                "ops/s base", "ops/s now", "change", "fails at", "B/op base", "B/op now", "change");
+        for (String scenario : scenarios) {
+            Baseline.Result expected = baseline.scenarios().get(scenario);
+            Baseline.Result actual = measured.scenarios().get(scenario);
+            if (expected == null) {
+                System.out.printf("%-48s %20s %20s %8s %8s   %14s %14.1f %8s  new%n", scenario,
+                        "-", throughput(actual), "", "", "-", actual.allocation(), "");
+                continue;
+            }
+            if (actual == null) {
+                System.out.printf("%-48s %20s %20s %8s %8s   %14.1f %14s %8s  MISSING%n", scenario,
+                        throughput(expected), "-", "", "", expected.allocation(), "-", "");
+                regressions.add(scenario + " is in the baseline but was not run");
+                continue;
+            }
+
+            double throughputChange = change(expected.throughput(), actual.throughput());
+            double failingChange = failingThroughputChange(expected, actual, throughputTolerance);
+            double allocationChange = change(expected.allocation(), actual.allocation());
+            boolean slower = throughputChange < failingChange;
+            boolean moreAllocating = allocationChange > allocationTolerance
+                    && actual.allocation() - expected.allocation() >= ALLOCATION_SLACK_BYTES;
+            System.out.printf("%-48s %20s %20s %+7.1f%% %+7.1f%%   %14.1f %14.1f %+7.1f%%%s%n", scenario,
+                    throughput(expected), throughput(actual), throughputChange * 100, failingChange * 100,
+                    expected.allocation(), actual.allocation(), allocationChange * 100,
+                    slower || moreAllocating ? "  REGRESSED" : "");
+            if (slower) {
+                regressions.add(String.format(Locale.ROOT, "%s throughput %s -> %s ops/s (%+.1f%%, fails below %+.1f%%)",
+                        scenario, throughput(expected), throughput(actual), throughputChange * 100, failingChange * 100));
+            }
+            if (moreAllocating) {
+                regressions.add(String.format(Locale.ROOT, "%s allocation %.1f -> %.1f B/op (%+.1f%%, tolerance +%.0f%%)",
+                        scenario, expected.allocation(), actual.allocation(), allocationChange * 100, allocationTolerance * 100));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Returns the throughput change below which a scenario regresses: the drop has to exceed the tolerance and
+     * separate the confidence intervals, so the larger of the two drops applies.
+     */
+    static double failingThroughputChange(Baseline.Result expected, Baseline.Result actual, double throughputTolerance) {
+        double intervalsSeparate = change(expected.throughput(),
+                expected.throughput() - expected.throughputError() - actual.throughputError());
+        return Math.min(-throughputTolerance, intervalsSeparate);
+    }
+
+    private static String throughput(Baseline.Result result) {
+        return String.format(Locale.ROOT, "%.3f +- %.3f", result.throughput(), result.throughputError());
+    }
+
+    private static double change(double expected, double actual) {
+        return expected == 0 ? (actual == 0 ? 0 : Double.POSITIVE_INFINITY) : (actual - expected) / expected;
+    }
+}
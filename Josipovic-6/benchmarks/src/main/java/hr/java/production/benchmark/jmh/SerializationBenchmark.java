@@ -0,0 +1,52 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.model.Store;
+import hr.java.production.utility.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing and deserializing synthetic stores with {@link FileUtils}.
+ * <p>
+ * The stores are written to a temporary file, so the serialized stores of the application are left untouched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SerializationBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Store> stores;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        stores = BenchmarkData.generate(size, BenchmarkData.ITEMS_PER_CONTAINER, size).stores;
+        file = Files.createTempFile("serialized-stores", ".bin");
+        FileUtils.serializeList(stores, file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void serializeList() {
+        FileUtils.serializeList(stores, file);
+    }
+
+    @Benchmark
+    public List<Store> deserializeList() {
+        return FileUtils.deserializeList(file);
+    }
+}
@@ -0,0 +1,57 @@
+package hr.java.production.benchmark.jmh;
+
+import hr.java.production.model.Item;
+import hr.java.production.sort.PriceRadixSorter;
+import hr.java.production.sort.ProductionSorter;
+import hr.java.production.sort.VolumeSorter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting synthetic items by volume and by discounted price.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SortBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkData.generate(size, BenchmarkData.ITEMS_PER_CONTAINER, size).items;
+    }
+
+    @Benchmark
+    public TreeSet<Item> volumeSorterTreeSet() {
+        TreeSet<Item> sorted = new TreeSet<>(new VolumeSorter());
+        sorted.addAll(items);
+        return sorted;
+    }
+
+    @Benchmark
+    public TreeSet<Item> volumeSorterPrecomputedKeys() {
+        return VolumeSorter.toSortedSet(items);
+    }
+
+    @Benchmark
+    public List<Item> productionSorter() {
+        List<Item> sorted = new ArrayList<>(items);
+        sorted.sort(new ProductionSorter());
+        return sorted;
+    }
+
+    @Benchmark
+    public List<Item> priceRadixSorter() {
+        return PriceRadixSorter.sort(items);
+    }
+}
@@ -0,0 +1,167 @@
+package hr.java.production.collection;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread-safe {@link List} that only grows, with lock-free appends and snapshot iteration.
+ * <p>
+ * Meant for the typed item lists of food and technical stores, which are filled by concurrent ingestion
+ * and read by reports. The elements are kept in chunks that double in size, starting with
+ * {@value #FIRST_CHUNK_SIZE} elements, so growing never copies or moves an element. An append reserves its
+ * position with a single atomic increment, creates the chunk with a compare-and-set if it is the first
+ * append into it, and publishes the element with a volatile write, so writers never wait for each other.
+ * <p>
+ * The list exposes the longest prefix of positions whose elements have been published: an element appended
+ * while an earlier append is still in progress becomes visible together with it. Iterators work on the
+ * prefix published when they were created and never throw {@code ConcurrentModificationException}.
+ * Only {@link #add(Object)} and {@link #addAll(Collection)} modify the list; null elements are rejected.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class ConcurrentAppendList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final int FIRST_CHUNK_SIZE = 1 << 4;
+
+    private static final int FIRST_CHUNK_BITS = Integer.numberOfTrailingZeros(FIRST_CHUNK_SIZE);
+    private static final int MAX_CHUNKS = Integer.SIZE - FIRST_CHUNK_BITS;
+
+    private final AtomicReferenceArray<AtomicReferenceArray<E>> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger published = new AtomicInteger();
+
+    public ConcurrentAppendList() {
+    }
+
+    public ConcurrentAppendList(Collection<? extends E> elements) {
+        addAll(elements);
+    }
+
+    /**
+     * Appends an element without locking.
+     *
+     * @param element The element to append.
+     * @return {@code true}.
+     * @throws NullPointerException  If the element is {@code null}.
+     * @throws IllegalStateException If the list already holds the maximum number of elements.
+     */
+    @Override
+    public boolean add(E element) {
+        Objects.requireNonNull(element);
+        int position = reserved.getAndIncrement();
+        if (position < 0 || position > Integer.MAX_VALUE - FIRST_CHUNK_SIZE) {
+            throw new IllegalStateException("The list cannot hold more elements.");
+        }
+        int chunkIndex = chunkIndex(position);
+        AtomicReferenceArray<E> chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunks.compareAndSet(chunkIndex, null, new AtomicReferenceArray<>(FIRST_CHUNK_SIZE << chunkIndex));
+            chunk = chunks.get(chunkIndex);
+        }
+        chunk.set(offset(position, chunkIndex), element);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> elements) {
+        elements.forEach(this::add);
+        return !elements.isEmpty();
+    }
+
+    @Override
+    public E get(int index) {
+        int size = published.get();
+        if (index >= size) {
+            size = publishedSize();
+        }
+        Objects.checkIndex(index, size);
+        return slot(index);
+    }
+
+    @Override
+    public int size() {
+        return publishedSize();
+    }
+
+    /**
+     * Iterates over the elements published when the iterator is created.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        int size = publishedSize();
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public E next() {
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return slot(position++);
+            }
+        };
+    }
+
+    /**
+     * Returns the length of the published prefix and moves the shared hint forward, so the next reader starts
+     * from where this one stopped. Appends do not touch the hint, so they contend only on {@code reserved}.
+     */
+    private int publishedSize() {
+        int hint = published.get();
+        int size = hint;
+        int limit = reserved.get();
+        while (size < limit && slot(size) != null) {
+            size++;
+        }
+        while (hint < size && !published.compareAndSet(hint, size)) {
+            hint = published.get();
+        }
+        return size;
+    }
+
+    private E slot(int position) {
+        int chunkIndex = chunkIndex(position);
+        AtomicReferenceArray<E> chunk = chunks.get(chunkIndex);
+        return chunk == null ? null : chunk.get(offset(position, chunkIndex));
+    }
+
+    private static int chunkIndex(int position) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(position + FIRST_CHUNK_SIZE) - FIRST_CHUNK_BITS;
+    }
+
+    private static int offset(int position, int chunkIndex) {
+        return position + FIRST_CHUNK_SIZE - (FIRST_CHUNK_SIZE << chunkIndex);
+    }
+
+    /**
+     * Serializes the published elements as a plain array instead of the chunks and counters.
+     */
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(toArray());
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("ConcurrentAppendList is deserialized from its serialized form.");
+    }
+
+    private record SerializedForm(Object[] elements) implements Serializable {
+        @Serial
+        private Object readResolve() {
+            return new ConcurrentAppendList<>(Arrays.asList(elements));
+        }
+    }
+}
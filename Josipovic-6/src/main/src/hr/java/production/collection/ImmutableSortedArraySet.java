@@ -0,0 +1,277 @@
+package hr.java.production.collection;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Immutable {@link SortedSet} backed by a plain sorted array.
+ * <p>
+ * Meant for item sets that are built once and then only read, such as the item sets of stores after loading.
+ * Compared to a {@code TreeSet}, there is no node object per element, iteration walks a contiguous array
+ * and {@code contains} is a binary search with the set's comparator. All mutating methods throw
+ * {@code UnsupportedOperationException}. Range views share the backing array.
+ *
+ * @param <E> The type of the elements.
+ */
+public class ImmutableSortedArraySet<E> extends AbstractSet<E> implements SortedSet<E>, Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Like a TreeSet, the set can be serialized if its elements and its comparator can.
+    @SuppressWarnings("serial")
+    private final Object[] elements;
+    private final int from, to;
+    @SuppressWarnings("serial")
+    private final Comparator<? super E> comparator;
+
+    private ImmutableSortedArraySet(Object[] elements, int from, int to, Comparator<? super E> comparator) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Creates a set with the elements of a collection, ordered by the comparator.
+     * Elements the comparator considers equal are kept once, as the first of them encountered.
+     *
+     * @param elements   The elements of the set.
+     * @param comparator The order of the set.
+     * @return The new set.
+     */
+    public static <E> ImmutableSortedArraySet<E> copyOf(Collection<? extends E> elements, Comparator<? super E> comparator) {
+        @SuppressWarnings("unchecked")
+        E[] sorted = (E[]) elements.toArray();
+        Arrays.sort(sorted, comparator);
+        int size = 0;
+        for (E element : sorted) {
+            if (size == 0 || comparator.compare(sorted[size - 1], element) != 0) {
+                sorted[size++] = element;
+            }
+        }
+        return new ImmutableSortedArraySet<>(Arrays.copyOf(sorted, size, Object[].class), 0, size, comparator);
+    }
+
+    /**
+     * Creates a set with elements that are already in the order of the comparator, without comparing them.
+     * The caller guarantees that the list is sorted and holds no two elements the comparator considers equal.
+     *
+     * @param sortedElements The elements of the set, in ascending order of the comparator.
+     * @param comparator     The order of the set.
+     * @return The new set.
+     */
+    public static <E> ImmutableSortedArraySet<E> copyOfSorted(List<? extends E> sortedElements, Comparator<? super E> comparator) {
+        Object[] elements = sortedElements.toArray();
+        return new ImmutableSortedArraySet<>(elements, 0, elements.length, comparator);
+    }
+
+    /**
+     * Creates a set with the elements of a sorted set, e.g. to freeze a {@code TreeSet} after it has been built.
+     * The elements are copied in their iteration order without being compared again.
+     *
+     * @param sortedSet The set to copy.
+     * @return The new set, with the same comparator as the given set.
+     * @throws IllegalArgumentException If the set has no comparator.
+     */
+    public static <E> ImmutableSortedArraySet<E> copyOf(SortedSet<E> sortedSet) {
+        if (sortedSet instanceof ImmutableSortedArraySet<E> immutableSet) {
+            return immutableSet;
+        }
+        if (sortedSet.comparator() == null) {
+            throw new IllegalArgumentException("Only sorted sets with an explicit comparator can be frozen.");
+        }
+        Object[] elements = sortedSet.toArray();
+        return new ImmutableSortedArraySet<>(elements, 0, elements.length, sortedSet.comparator());
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        try {
+            return indexOf((E) o) >= 0;
+        } catch (ClassCastException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int position = from;
+
+            @Override
+            public boolean hasNext() {
+                return position < to;
+            }
+
+            @Override
+            public E next() {
+                if (position >= to) {
+                    throw new NoSuchElementException();
+                }
+                return elementAt(position++);
+            }
+        };
+    }
+
+    /**
+     * Splits the backing array like an array spliterator and reports the set's comparator,
+     * so streams know which order the elements are already sorted in.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new SortedSpliterator<>(Spliterators.spliterator(elements, from, to,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL), comparator);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        if (comparator.compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("fromElement is greater than toElement");
+        }
+        return new ImmutableSortedArraySet<>(elements, lowerBound(fromElement), Math.max(lowerBound(fromElement), lowerBound(toElement)), comparator);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return new ImmutableSortedArraySet<>(elements, from, lowerBound(toElement), comparator);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return new ImmutableSortedArraySet<>(elements, lowerBound(fromElement), to, comparator);
+    }
+
+    @Override
+    public E first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(from);
+    }
+
+    @Override
+    public E last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(to - 1);
+    }
+
+    @Override
+    public boolean add(E e) {
+        throw new UnsupportedOperationException("ImmutableSortedArraySet cannot be modified.");
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("ImmutableSortedArraySet cannot be modified.");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("ImmutableSortedArraySet cannot be modified.");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException("ImmutableSortedArraySet cannot be modified.");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException("ImmutableSortedArraySet cannot be modified.");
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        throw new UnsupportedOperationException("ImmutableSortedArraySet cannot be modified.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private E elementAt(int position) {
+        return (E) elements[position];
+    }
+
+    private int indexOf(E element) {
+        int low = from, high = to - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = comparator.compare(elementAt(middle), element);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position of the first element that is not less than the given one.
+     */
+    private int lowerBound(E element) {
+        int low = from, high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(elementAt(middle), element) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private record SortedSpliterator<E>(Spliterator<E> array, Comparator<? super E> comparator) implements Spliterator<E> {
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            return array.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super E> action) {
+            array.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            Spliterator<E> prefix = array.trySplit();
+            return prefix == null ? null : new SortedSpliterator<>(prefix, comparator);
+        }
+
+        @Override
+        public long estimateSize() {
+            return array.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return array.characteristics() | Spliterator.SORTED;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            return comparator;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package hr.java.production.enumeration;
+
+/**
+ * Machine-readable formats the inventory reports can be exported in.
+ */
+public enum ExportFormat {
+    /**
+     * Comma-separated values with a header row, quoted where needed as described in RFC 4180.
+     */
+    CSV,
+    /**
+     * One JSON object per line, with the column names as keys.
+     */
+    JSON_LINES
+}
@@ -1,21 +1,38 @@
 package hr.java.production.enumeration;
 
+import java.nio.file.Path;
+
+/**
+ * Locations of the input, serialization and metrics files, relative to the project root.
+ * <p>
+ * The input files are read from {@code dat/input} unless the system property {@value #INPUT_DIRECTORY_PROPERTY}
+ * names another directory, e.g. one written by {@code DatasetGenerator}.
+ */
 public enum FilePath {
-    CATEGORIES("Josipovic-6/src/main/dat/input/categories.txt"),
-    ITEMS("Josipovic-6/src/main/dat/input/items.txt"),
-    ADDRESSES("Josipovic-6/src/main/dat/input/addresses.txt"),
-    FACTORIES("Josipovic-6/src/main/dat/input/factories.txt"),
-    STORES("Josipovic-6/src/main/dat/input/stores.txt"),
-    SERIALIZED_FACTORIES("Josipovic-6/src/main/dat/serialized-objects/serialized-factories.txt"),
-    SERIALIZED_STORES("Josipovic-6/src/main/dat/serialized-objects/serialized-stores.txt");
+    CATEGORIES("Josipovic-6/src/main/dat/input/categories.txt", true),
+    ITEMS("Josipovic-6/src/main/dat/input/items.txt", true),
+    ADDRESSES("Josipovic-6/src/main/dat/input/addresses.txt", true),
+    FACTORIES("Josipovic-6/src/main/dat/input/factories.txt", true),
+    STORES("Josipovic-6/src/main/dat/input/stores.txt", true),
+    SERIALIZED_FACTORIES("Josipovic-6/src/main/dat/serialized-objects/serialized-factories.txt", false),
+    SERIALIZED_STORES("Josipovic-6/src/main/dat/serialized-objects/serialized-stores.txt", false),
+    METRICS("Josipovic-6/src/main/logs/metrics.log", false);
+
+    public static final String INPUT_DIRECTORY_PROPERTY = "hr.java.production.inputDirectory";
 
     private final String path;
+    private final boolean input;
 
-    FilePath(String path) {
+    FilePath(String path, boolean input) {
         this.path = path;
+        this.input = input;
     }
 
     public String getPath() {
+        String inputDirectory = System.getProperty(INPUT_DIRECTORY_PROPERTY);
+        if (input && inputDirectory != null) {
+            return Path.of(inputDirectory).resolve(Path.of(path).getFileName()).toString();
+        }
         return path;
     }
 }
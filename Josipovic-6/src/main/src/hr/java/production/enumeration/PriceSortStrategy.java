@@ -0,0 +1,15 @@
+package hr.java.production.enumeration;
+
+/**
+ * Selects how items are sorted by their discounted selling price.
+ */
+public enum PriceSortStrategy {
+    /**
+     * {@code List.sort} with a {@code ProductionSorter}, which recalculates both prices on every comparison.
+     */
+    COMPARATOR,
+    /**
+     * {@code PriceRadixSorter}, which calculates every price once and sorts in linear time.
+     */
+    RADIX
+}
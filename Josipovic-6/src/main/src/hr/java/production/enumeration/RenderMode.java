@@ -0,0 +1,15 @@
+package hr.java.production.enumeration;
+
+/**
+ * Selects how the per-container sections of a report are formatted.
+ */
+public enum RenderMode {
+    /**
+     * Every section is formatted and written on the calling thread, one after another.
+     */
+    SEQUENTIAL,
+    /**
+     * Sections are formatted into their own buffers on the common fork-join pool and written in the original order.
+     */
+    PARALLEL
+}
@@ -0,0 +1,69 @@
+package hr.java.production.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes rows as comma-separated values with a header row and CRLF line endings.
+ * Text that contains a comma, a quote or a line break is quoted, with quotes doubled.
+ */
+class CsvRowWriter extends RowWriter {
+
+    CsvRowWriter(WritableByteChannel channel, List<String> columns) {
+        super(channel, columns);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            writeFieldStart(i);
+            writeText(columns.get(i));
+        }
+        writeRowEnd();
+    }
+
+    @Override
+    protected void writeFieldStart(int index) throws IOException {
+        if (index > 0) {
+            append(',');
+        }
+    }
+
+    @Override
+    protected void writeText(String value) throws IOException {
+        if (!needsQuoting(value)) {
+            append(value);
+            return;
+        }
+        append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                append('"');
+            }
+            append(c);
+        }
+        append('"');
+    }
+
+    @Override
+    protected void writeNumber(String value) throws IOException {
+        append(value);
+    }
+
+    @Override
+    protected void writeRowEnd() throws IOException {
+        append("\r\n");
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
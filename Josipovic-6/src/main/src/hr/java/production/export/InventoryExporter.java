@@ -0,0 +1,124 @@
+package hr.java.production.export;
+
+import hr.java.production.enumeration.ExportFormat;
+import hr.java.production.model.Category;
+import hr.java.production.model.Item;
+import hr.java.production.model.ItemContainer;
+import hr.java.production.sort.ProductionSorter;
+import hr.java.production.sort.TopKSelector;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable counterparts of the {@code InventoryReportPrinter} reports.
+ * <p>
+ * Each export streams one row per reported value through a {@link RowWriter}, so rows are written
+ * while the input is being iterated and memory use stays constant regardless of the number of rows.
+ * The channel is left open, so several exports can be written to the same channel or file.
+ */
+public class InventoryExporter {
+
+    /**
+     * Exports the volume of every item in every container, in the order the containers iterate their items.
+     * Columns: {@code container, item, volume}.
+     *
+     * @param containers The containers to export.
+     * @param format     The output format.
+     * @param channel    The channel to write to.
+     * @return The number of rows written.
+     * @throws IOException If the rows cannot be written.
+     */
+    public static long exportContainerItemVolumes(Collection<? extends ItemContainer> containers, ExportFormat format,
+                                                  WritableByteChannel channel) throws IOException {
+        RowWriter writer = RowWriter.of(format, channel, "container", "item", "volume");
+        for (ItemContainer container : containers) {
+            for (Item item : container.getItems()) {
+                writer.field(container.getName()).field(item.getName()).field(item.calculateVolume()).endRow();
+            }
+        }
+        writer.finish();
+        return writer.getRowCount();
+    }
+
+    /**
+     * Exports the volume of every item as the iterator produces it, e.g. the sorted output of an {@code ExternalItemSorter}.
+     * Columns: {@code item, volume}.
+     *
+     * @param items   The items to export.
+     * @param format  The output format.
+     * @param channel The channel to write to.
+     * @return The number of rows written.
+     * @throws IOException If the rows cannot be written.
+     */
+    public static long exportItemVolumes(Iterator<Item> items, ExportFormat format, WritableByteChannel channel) throws IOException {
+        RowWriter writer = RowWriter.of(format, channel, "item", "volume");
+        while (items.hasNext()) {
+            Item item = items.next();
+            writer.field(item.getName()).field(item.calculateVolume()).endRow();
+        }
+        writer.finish();
+        return writer.getRowCount();
+    }
+
+    /**
+     * Exports the least and most expensive item of every key, by discounted selling price.
+     * Keys without items are skipped. Columns: {@code key, cheapestItem, cheapestPrice, priciestItem, priciestPrice}.
+     *
+     * @param itemsPerKeyMap The items grouped by key, e.g. by category.
+     * @param format         The output format.
+     * @param channel        The channel to write to.
+     * @return The number of rows written.
+     * @throws IOException If the rows cannot be written.
+     */
+    public static long exportCheapestAndPriciestItemsByKey(Map<?, List<Item>> itemsPerKeyMap, ExportFormat format,
+                                                           WritableByteChannel channel) throws IOException {
+        RowWriter writer = RowWriter.of(format, channel, "key", "cheapestItem", "cheapestPrice", "priciestItem", "priciestPrice");
+        ProductionSorter sorter = new ProductionSorter();
+        for (Map.Entry<?, List<Item>> entry : itemsPerKeyMap.entrySet()) {
+            TopKSelector.MinMax<Item> minMax = TopKSelector.minMax(entry.getValue(), sorter).orElse(null);
+            if (minMax == null) {
+                continue;
+            }
+            writer.field(getKeyName(entry.getKey()))
+                    .field(minMax.min().getName()).field(minMax.min().getDiscountedSellingPrice())
+                    .field(minMax.max().getName()).field(minMax.max().getDiscountedSellingPrice())
+                    .endRow();
+        }
+        writer.finish();
+        return writer.getRowCount();
+    }
+
+    /**
+     * Exports every item with a discount greater than zero.
+     * Columns: {@code id, item, sellingPrice, discount, discountedPrice}.
+     *
+     * @param items   The items to filter.
+     * @param format  The output format.
+     * @param channel The channel to write to.
+     * @return The number of rows written.
+     * @throws IOException If the rows cannot be written.
+     */
+    public static long exportDiscountedItems(Collection<Item> items, ExportFormat format, WritableByteChannel channel) throws IOException {
+        RowWriter writer = RowWriter.of(format, channel, "id", "item", "sellingPrice", "discount", "discountedPrice");
+        for (Item item : items) {
+            BigDecimal discount = item.getDiscount().discountAmount();
+            if (discount.compareTo(BigDecimal.ZERO) > 0) {
+                writer.field(item.getId()).field(item.getName()).field(item.getSellingPrice())
+                        .field(discount).field(item.getDiscountedSellingPrice())
+                        .endRow();
+            }
+        }
+        writer.finish();
+        return writer.getRowCount();
+    }
+
+    private static String getKeyName(Object key) {
+        return key instanceof Category ? ((Category) key).getName() : key.toString();
+    }
+}
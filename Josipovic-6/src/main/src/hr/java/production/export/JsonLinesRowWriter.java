@@ -0,0 +1,61 @@
+package hr.java.production.export;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Writes every row as one JSON object on its own line, with the column names as keys.
+ */
+class JsonLinesRowWriter extends RowWriter {
+    // Lets JsonStrings escape straight into the buffer of this writer.
+    private final Appendable buffer = new Appendable() {
+        @Override
+        public Appendable append(CharSequence text) throws IOException {
+            JsonLinesRowWriter.this.append(text);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence text, int start, int end) throws IOException {
+            JsonLinesRowWriter.this.append(text, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            JsonLinesRowWriter.this.append(c);
+            return this;
+        }
+    };
+
+    JsonLinesRowWriter(WritableByteChannel channel, List<String> columns) {
+        super(channel, columns);
+    }
+
+    @Override
+    protected void writeHeader() {
+    }
+
+    @Override
+    protected void writeFieldStart(int index) throws IOException {
+        append(index == 0 ? '{' : ',');
+        writeText(columns.get(index));
+        append(':');
+    }
+
+    @Override
+    protected void writeText(String value) throws IOException {
+        JsonStrings.appendQuoted(value, buffer);
+    }
+
+    @Override
+    protected void writeNumber(String value) throws IOException {
+        append(value);
+    }
+
+    @Override
+    protected void writeRowEnd() throws IOException {
+        append("}\n");
+    }
+}
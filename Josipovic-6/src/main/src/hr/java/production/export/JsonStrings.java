@@ -0,0 +1,63 @@
+package hr.java.production.export;
+
+import java.io.IOException;
+
+/**
+ * Quotes text as a JSON string, for the JSON Lines export and every other JSON writer.
+ * <p>
+ * Quotes, backslashes and control characters are escaped; everything else, including non-ASCII characters,
+ * is copied as is, so the output must be encoded as UTF-8.
+ */
+public final class JsonStrings {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private JsonStrings() {
+    }
+
+    /**
+     * Appends a value as a quoted and escaped JSON string. Runs of characters that need no escaping
+     * are appended at once.
+     *
+     * @param value The text to quote.
+     * @param out   The output to append to.
+     * @throws IOException If appending fails.
+     */
+    public static void appendQuoted(CharSequence value, Appendable out) throws IOException {
+        out.append('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, start, i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.append(value, start, value.length());
+        out.append('"');
+    }
+
+    /**
+     * Appends a value as a quoted and escaped JSON string to a builder, which cannot fail.
+     *
+     * @param value The text to quote.
+     * @param out   The builder to append to.
+     * @return The builder.
+     */
+    public static StringBuilder appendQuoted(CharSequence value, StringBuilder out) {
+        try {
+            appendQuoted(value, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError("A StringBuilder does not throw an IOException.", e);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,175 @@
+package hr.java.production.export;
+
+import hr.java.production.enumeration.ExportFormat;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes rows of a fixed set of columns to a channel, encoded as UTF-8.
+ * <p>
+ * Field values are copied straight into a fixed-size character buffer, which is encoded into a fixed-size
+ * byte buffer and written to the channel whenever it fills up, so the memory used does not depend on the
+ * number of rows. Every row must have exactly as many fields as there are columns.
+ * <p>
+ * The writer does not own the channel: {@link #finish()} writes out the remaining bytes but leaves the channel open.
+ */
+public abstract class RowWriter {
+    private static final int BUFFER_SIZE = 1 << 14;
+
+    protected final List<String> columns;
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 3);
+    private int fieldIndex;
+    private long rowCount;
+
+    protected RowWriter(WritableByteChannel channel, List<String> columns) {
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("A row needs at least one column.");
+        }
+        this.channel = channel;
+        this.columns = List.copyOf(columns);
+    }
+
+    /**
+     * Creates a writer in the given format and writes the header, if the format has one.
+     *
+     * @param format  The format of the rows.
+     * @param channel The channel to write to.
+     * @param columns The names of the columns.
+     * @return A new writer positioned at the first row.
+     * @throws IOException If the header cannot be written.
+     */
+    public static RowWriter of(ExportFormat format, WritableByteChannel channel, String... columns) throws IOException {
+        RowWriter writer = switch (format) {
+            case CSV -> new CsvRowWriter(channel, List.of(columns));
+            case JSON_LINES -> new JsonLinesRowWriter(channel, List.of(columns));
+        };
+        writer.writeHeader();
+        return writer;
+    }
+
+    public RowWriter field(String value) throws IOException {
+        beginField();
+        writeText(value);
+        return this;
+    }
+
+    public RowWriter field(long value) throws IOException {
+        beginField();
+        writeNumber(Long.toString(value));
+        return this;
+    }
+
+    public RowWriter field(BigDecimal value) throws IOException {
+        beginField();
+        writeNumber(value.toPlainString());
+        return this;
+    }
+
+    /**
+     * Ends the current row.
+     *
+     * @throws IOException           If the buffered bytes cannot be written.
+     * @throws IllegalStateException If the row does not have a field for every column.
+     */
+    public void endRow() throws IOException {
+        if (fieldIndex != columns.size()) {
+            throw new IllegalStateException("Row " + rowCount + " has " + fieldIndex + " fields instead of " + columns.size() + ".");
+        }
+        writeRowEnd();
+        fieldIndex = 0;
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes all buffered text to the channel. Call it once, after the last row.
+     *
+     * @throws IOException If the bytes cannot be written.
+     */
+    public void finish() throws IOException {
+        drain(true);
+        bytes.clear();
+        encoder.flush(bytes);
+        writeBytes();
+        encoder.reset();
+    }
+
+    protected abstract void writeHeader() throws IOException;
+
+    protected abstract void writeFieldStart(int index) throws IOException;
+
+    protected abstract void writeText(String value) throws IOException;
+
+    protected abstract void writeNumber(String value) throws IOException;
+
+    protected abstract void writeRowEnd() throws IOException;
+
+    protected void append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            drain(false);
+        }
+        chars.put(c);
+    }
+
+    protected void append(CharSequence text) throws IOException {
+        append(text, 0, text.length());
+    }
+
+    protected void append(CharSequence text, int start, int end) throws IOException {
+        while (start < end) {
+            if (!chars.hasRemaining()) {
+                drain(false);
+            }
+            int chunkEnd = Math.min(end, start + chars.remaining());
+            chars.append(text, start, chunkEnd);
+            start = chunkEnd;
+        }
+    }
+
+    private void beginField() throws IOException {
+        if (fieldIndex == columns.size()) {
+            throw new IllegalStateException("Row " + rowCount + " already has a field for every column.");
+        }
+        writeFieldStart(fieldIndex++);
+    }
+
+    private void drain(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else {
+                break;
+            }
+        }
+        // A high surrogate at the end stays in the buffer until its pair arrives.
+        chars.compact();
+        writeBytes();
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -0,0 +1,302 @@
+package hr.java.production.generator;
+
+import hr.java.production.enumeration.CategoryTypeChoice;
+import hr.java.production.enumeration.Cities;
+import hr.java.production.enumeration.FoodType;
+import hr.java.production.enumeration.StoreType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+/**
+ * Generates synthetic input files in the format {@code FileUtils} reads from {@code dat/input}.
+ * <p>
+ * The files are produced in blocks of {@link #BLOCK_SIZE} records. Every block draws its values from its own
+ * random generator, seeded from the generator seed and the block's first ID, so the output depends only on
+ * the seed and the requested sizes, not on the number of threads. Blocks are rendered in parallel, a window
+ * of a few blocks per core at a time, and written to the file in order, so memory use does not depend on
+ * the size of the dataset and 100M items (about 7 GB of {@code items.txt}) can be generated.
+ * <p>
+ * The item mix is 20% pizzas, 15% chicken nuggets, 25% laptops and 40% books. The type of an item is a
+ * function of its ID, so stores can pick items of the type they require without keeping the items in memory.
+ * Every factory has its own address.
+ * <p>
+ * Run with {@code <output directory> <item count> [seed] [store count] [factory count]}. To load the generated
+ * files instead of the bundled ones, start the application with {@code -Dhr.java.production.inputDirectory=<output directory>}.
+ */
+public class DatasetGenerator {
+    public static final int BLOCK_SIZE = 1 << 14;
+    public static final int DEFAULT_ITEMS_PER_CONTAINER = 20;
+    public static final long DEFAULT_SEED = 42;
+
+    private static final int BLOCKS_PER_WINDOW = 4 * Runtime.getRuntime().availableProcessors();
+    private static final long ITEMS_STREAM = 1, ADDRESSES_STREAM = 2, FACTORIES_STREAM = 3, STORES_STREAM = 4, TYPES_STREAM = 5;
+    private static final int PIZZA_PERCENT = 20, CHICKEN_NUGGETS_PERCENT = 15, LAPTOP_PERCENT = 25;
+
+    private static final String[] PIZZA_NAMES = {"Margherita", "Capricciosa", "Hawaiian", "Quattro Formaggi", "Pepperoni", "Vegetariana", "Supreme", "Barbecue Chicken"};
+    private static final String[] CHICKEN_NUGGETS_NAMES = {"Pileći medaljon", "Buffalo Chicken Wings", "Crispy Nuggets", "Spicy Chicken Strips"};
+    private static final String[] LAPTOP_NAMES = {"Razer Blade 14", "Macbook Pro M2 13 inch", "Dell XPS 15", "Lenovo ThinkPad X1 Carbon", "Asus ROG Zephyrus G14", "HP Spectre x360", "Acer Predator Helios 300"};
+    private static final String[] BOOK_NAMES = {"Moby Dick", "War and Peace", "Jane Eyre", "Crime and Punishment", "Wuthering Heights", "The Great Gatsby", "Pride and Prejudice", "Magic Mountain"};
+    private static final String[] STREET_NAMES = {"Ilica", "Vukovarska", "Savska", "Radnička cesta", "Varaždinska", "Zagrebačka", "Ulica grada Vukovara"};
+
+    private final long seed;
+    private final long itemCount;
+    private final long storeCount;
+    private final long factoryCount;
+    private final int itemsPerContainer;
+
+    /**
+     * Constructs a generator.
+     *
+     * @param seed              The seed all generated values are derived from.
+     * @param itemCount         The number of items.
+     * @param storeCount        The number of stores.
+     * @param factoryCount      The number of factories, which is also the number of addresses.
+     * @param itemsPerContainer The number of items each store and factory holds, at most the number of items.
+     */
+    public DatasetGenerator(long seed, long itemCount, long storeCount, long factoryCount, int itemsPerContainer) {
+        if (itemCount <= 0 || storeCount < 0 || factoryCount < 0 || itemsPerContainer <= 0) {
+            throw new IllegalArgumentException("Item count and items per container must be positive, store and factory counts must not be negative.");
+        }
+        this.seed = seed;
+        this.itemCount = itemCount;
+        this.storeCount = storeCount;
+        this.factoryCount = factoryCount;
+        this.itemsPerContainer = (int) Math.min(itemsPerContainer, itemCount);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: DatasetGenerator <output directory> <item count> [seed] [store count] [factory count]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        long itemCount = parseCount(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        long storeCount = args.length > 3 ? parseCount(args[3]) : Math.max(1, itemCount / 1000);
+        long factoryCount = args.length > 4 ? parseCount(args[4]) : Math.max(1, itemCount / 1000);
+
+        long start = System.nanoTime();
+        new DatasetGenerator(seed, itemCount, storeCount, factoryCount, DEFAULT_ITEMS_PER_CONTAINER).generate(directory);
+        System.out.println("Generated " + itemCount + " items, " + storeCount + " stores and " + factoryCount + " factories in "
+                + directory.toAbsolutePath() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    }
+
+    /**
+     * Writes {@code categories.txt}, {@code items.txt}, {@code addresses.txt}, {@code factories.txt}
+     * and {@code stores.txt} into the directory, replacing existing files.
+     *
+     * @param directory The directory to write to. It is created if it does not exist.
+     * @throws IOException If a file cannot be written.
+     */
+    public void generate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeBlocks(directory.resolve("categories.txt"), 1, (first, last) -> renderCategories());
+        writeBlocks(directory.resolve("items.txt"), itemCount, this::renderItems);
+        writeBlocks(directory.resolve("addresses.txt"), factoryCount, this::renderAddresses);
+        writeBlocks(directory.resolve("factories.txt"), factoryCount, this::renderFactories);
+        writeBlocks(directory.resolve("stores.txt"), storeCount, this::renderStores);
+    }
+
+    /**
+     * Returns the item type of an ID: its {@link CategoryTypeChoice}, and for food its {@link FoodType}.
+     */
+    private ItemType itemType(long id) {
+        int percent = (int) Long.remainderUnsigned(mix(seed, TYPES_STREAM, id), 100);
+        if (percent < PIZZA_PERCENT) {
+            return ItemType.PIZZA;
+        } else if (percent < PIZZA_PERCENT + CHICKEN_NUGGETS_PERCENT) {
+            return ItemType.CHICKEN_NUGGETS;
+        } else if (percent < PIZZA_PERCENT + CHICKEN_NUGGETS_PERCENT + LAPTOP_PERCENT) {
+            return ItemType.LAPTOP;
+        }
+        return ItemType.BOOK;
+    }
+
+    private String renderCategories() {
+        return "1\nFood\nIn this category you can find all items related to food.\n"
+                + "2\nTechnical equipment\nIn this category you can find all items from technical area.\n"
+                + "3\nLiterature\nIn this category you can find books, comics etc.\n";
+    }
+
+    private String renderItems(long firstId, long lastId) {
+        SplittableRandom random = new SplittableRandom(mix(seed, ITEMS_STREAM, firstId));
+        StringBuilder block = new StringBuilder((int) (lastId - firstId + 1) * 80);
+        for (long id = firstId; id <= lastId; id++) {
+            ItemType type = itemType(id);
+            block.append(id).append('\n');
+            switch (type) {
+                case PIZZA -> {
+                    long diameter = random.nextLong(2500, 3500);
+                    appendItem(block, pick(random, PIZZA_NAMES) + " Pizza " + id, 1, diameter, random.nextLong(300, 500), diameter,
+                            random.nextLong(200, 500), random.nextLong(800, 1500), random);
+                    block.append(CategoryTypeChoice.FOOD.getChoice()).append('\n').append(FoodType.PIZZA.getChoice()).append('\n');
+                    appendHundredths(block, random.nextLong(30, 100));
+                }
+                case CHICKEN_NUGGETS -> {
+                    appendItem(block, pick(random, CHICKEN_NUGGETS_NAMES) + " " + id, 1, random.nextLong(1500, 2000), random.nextLong(400, 600),
+                            random.nextLong(1500, 2000), random.nextLong(100, 300), random.nextLong(400, 900), random);
+                    block.append(CategoryTypeChoice.FOOD.getChoice()).append('\n').append(FoodType.CHICKEN_NUGGETS.getChoice()).append('\n');
+                    appendHundredths(block, random.nextLong(30, 100));
+                }
+                case LAPTOP -> {
+                    appendItem(block, pick(random, LAPTOP_NAMES) + " " + id, 2, random.nextLong(150, 250), random.nextLong(2000, 3600),
+                            random.nextLong(2000, 2600), random.nextLong(60000, 150000), random.nextLong(120000, 260000), random);
+                    block.append(CategoryTypeChoice.LAPTOP.getChoice()).append('\n').append(random.nextInt(1, 6)).append('\n');
+                }
+                case BOOK -> {
+                    appendItem(block, pick(random, BOOK_NAMES) + " " + id, 3, random.nextLong(150, 600), random.nextLong(1200, 2200),
+                            random.nextLong(1800, 2500), random.nextLong(5000, 15000), random.nextLong(10000, 35000), random);
+                    block.append(CategoryTypeChoice.OTHER.getChoice()).append('\n');
+                }
+            }
+        }
+        return block.toString();
+    }
+
+    /**
+     * Appends the lines every item has, from the name to the discount. Dimensions and prices are in hundredths.
+     */
+    private static void appendItem(StringBuilder block, String name, long categoryId, long width, long height, long length,
+                                   long productionCost, long sellingPrice, SplittableRandom random) {
+        block.append(name).append('\n').append(categoryId).append('\n');
+        appendHundredths(block, width);
+        appendHundredths(block, height);
+        appendHundredths(block, length);
+        appendHundredths(block, productionCost);
+        appendHundredths(block, sellingPrice);
+        block.append(random.nextInt(0, 21)).append('\n');
+    }
+
+    private String renderAddresses(long firstId, long lastId) {
+        SplittableRandom random = new SplittableRandom(mix(seed, ADDRESSES_STREAM, firstId));
+        Cities[] cities = Cities.values();
+        StringBuilder block = new StringBuilder((int) (lastId - firstId + 1) * 40);
+        for (long id = firstId; id <= lastId; id++) {
+            block.append(pick(random, STREET_NAMES)).append('\n')
+                    .append(random.nextInt(1, 300)).append('\n')
+                    .append(cities[random.nextInt(cities.length)].getName()).append('\n');
+        }
+        return block.toString();
+    }
+
+    private String renderFactories(long firstId, long lastId) {
+        SplittableRandom random = new SplittableRandom(mix(seed, FACTORIES_STREAM, firstId));
+        StringBuilder block = new StringBuilder((int) (lastId - firstId + 1) * (itemsPerContainer * 10 + 40));
+        for (long id = firstId; id <= lastId; id++) {
+            block.append(id).append('\n').append("Factory ").append(id).append(" d.o.o.").append('\n').append(id).append('\n');
+            appendItemIds(block, random, null);
+        }
+        return block.toString();
+    }
+
+    private String renderStores(long firstId, long lastId) {
+        SplittableRandom random = new SplittableRandom(mix(seed, STORES_STREAM, firstId));
+        StringBuilder block = new StringBuilder((int) (lastId - firstId + 1) * (itemsPerContainer * 10 + 50));
+        for (long id = firstId; id <= lastId; id++) {
+            StoreType storeType = random.nextBoolean() ? StoreType.TECHNICAL_STORE : StoreType.FOOD_STORE;
+            block.append(id).append('\n').append("Store ").append(id).append('\n').append("store-").append(id).append(".hr").append('\n');
+            appendItemIds(block, random, storeType);
+            block.append(storeType.getValue()).append('\n');
+        }
+        return block.toString();
+    }
+
+    /**
+     * Appends a line of distinct random item IDs. For a store type, the first ID is an item the store type requires.
+     */
+    private void appendItemIds(StringBuilder block, SplittableRandom random, StoreType storeType) {
+        Set<Long> chosenIds = new HashSet<>();
+        if (storeType != null) {
+            long id = random.nextLong(1, itemCount + 1);
+            for (int attempt = 0; attempt < 1000 && !isRequiredBy(storeType, itemType(id)); attempt++) {
+                id = random.nextLong(1, itemCount + 1);
+            }
+            chosenIds.add(id);
+            block.append(id);
+        }
+        while (chosenIds.size() < itemsPerContainer) {
+            long id = random.nextLong(1, itemCount + 1);
+            if (chosenIds.add(id)) {
+                if (chosenIds.size() > 1) {
+                    block.append(',');
+                }
+                block.append(id);
+            }
+        }
+        block.append('\n');
+    }
+
+    private static boolean isRequiredBy(StoreType storeType, ItemType itemType) {
+        return switch (storeType) {
+            case TECHNICAL_STORE -> itemType == ItemType.LAPTOP;
+            case FOOD_STORE -> itemType == ItemType.PIZZA || itemType == ItemType.CHICKEN_NUGGETS;
+        };
+    }
+
+    /**
+     * Renders the records of a file block by block on the common fork-join pool and writes the blocks in ID order.
+     */
+    private static void writeBlocks(Path file, long count, BlockRenderer renderer) throws IOException {
+        long blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long window = 0; window < blockCount; window += BLOCKS_PER_WINDOW) {
+                byte[][] blocks = LongStream.range(window, Math.min(blockCount, window + BLOCKS_PER_WINDOW))
+                        .parallel()
+                        .mapToObj(block -> renderer.render(block * BLOCK_SIZE + 1, Math.min(count, (block + 1) * BLOCK_SIZE)).getBytes(StandardCharsets.UTF_8))
+                        .toArray(byte[][]::new);
+                for (byte[] block : blocks) {
+                    ByteBuffer buffer = ByteBuffer.wrap(block);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void appendHundredths(StringBuilder block, long hundredths) {
+        long fraction = hundredths % 100;
+        block.append(hundredths / 100).append('.');
+        if (fraction < 10) {
+            block.append('0');
+        }
+        block.append(fraction).append('\n');
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Derives an independent 64-bit value from the seed, a stream tag and an ID, with the SplitMix64 finalizer.
+     */
+    private static long mix(long seed, long stream, long id) {
+        long z = seed + stream * 0x9E3779B97F4A7C15L + id * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long parseCount(String value) {
+        return Long.parseLong(value.replace("_", ""));
+    }
+
+    @FunctionalInterface
+    private interface BlockRenderer {
+        String render(long firstId, long lastId);
+    }
+
+    private enum ItemType {
+        PIZZA, CHICKEN_NUGGETS, LAPTOP, BOOK
+    }
+}
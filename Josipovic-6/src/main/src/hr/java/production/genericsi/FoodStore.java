@@ -18,6 +18,9 @@ public class FoodStore <T extends Edible> extends Store {
 
     public void addFoodStoreItem(T item){
         foodStoreItems.add(item);
+        if (item instanceof Item addedItem) {
+            fireItemAdded(addedItem);
+        }
     }
 
     public List<T> getFoodStoreItems() {
@@ -18,6 +18,9 @@ public class TechnicalStore<T extends Technical> extends Store {
 
     public void addTechnicalStoreItem(T item) {
         technicalStoreItems.add(item);
+        if (item instanceof Item addedItem) {
+            fireItemAdded(addedItem);
+        }
     }
 
     public List<T> getTechnicalStoreItems() {
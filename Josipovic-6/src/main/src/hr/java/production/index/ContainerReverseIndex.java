@@ -0,0 +1,119 @@
+package hr.java.production.index;
+
+import hr.java.production.model.*;
+
+import java.util.*;
+
+/**
+ * Reverse index from an item ID to the factories that produce it and the stores that sell it.
+ * <p>
+ * {@link ItemContainer} only answers which items a container holds. This index answers the opposite question
+ * with a single hash lookup instead of a scan over every container. Containers are added with
+ * {@link #register(ItemContainer)}, after which the index listens to them.
+ * <p>
+ * Only the item set of a container ({@code getItems()}) is indexed, and the index follows it through
+ * {@code setItems}. The typed lists of food and technical stores are not indexed on their own: an item added
+ * with {@code addFoodStoreItem} or {@code addTechnicalStoreItem} is indexed only if it is also in the item set,
+ * as it is for the stores {@code FileUtils} reads. Changes made to an item set in place are not seen.
+ * Containers are kept by identity, since their {@code hashCode} changes together with their items.
+ */
+public class ContainerReverseIndex implements ItemContainerListener {
+    private final Map<Long, List<Factory>> factoriesPerItemId = new HashMap<>();
+    private final Map<Long, List<Store>> storesPerItemId = new HashMap<>();
+
+    /**
+     * Indexes all items of a container and starts listening to its changes.
+     *
+     * @param container The factory or store to index.
+     */
+    public synchronized void register(ItemContainer container) {
+        container.getItems().forEach(item -> index(container, item));
+        container.addContainerListener(this);
+    }
+
+    /**
+     * Removes a container from the index and stops listening to its changes.
+     *
+     * @param container The factory or store to remove.
+     */
+    public synchronized void unregister(ItemContainer container) {
+        container.removeContainerListener(this);
+        container.getItems().forEach(item -> unindex(container, item));
+    }
+
+    /**
+     * Indexes an item added to a container, if it is in the container's item set.
+     *
+     * @param container The container the item was added to.
+     * @param item      The added item.
+     */
+    @Override
+    public synchronized void itemAdded(ItemContainer container, Item item) {
+        if (container.getItems().contains(item)) {
+            index(container, item);
+        }
+    }
+
+    @Override
+    public synchronized void itemsReplaced(ItemContainer container, Set<Item> oldItems, Set<Item> newItems) {
+        if (oldItems != null) {
+            oldItems.forEach(item -> unindex(container, item));
+        }
+        if (newItems != null) {
+            newItems.forEach(item -> index(container, item));
+        }
+    }
+
+    /**
+     * Finds the factories that produce the item with the given ID.
+     *
+     * @param itemId The ID of the item.
+     * @return An unmodifiable list of the factories, empty if no factory produces the item.
+     */
+    public synchronized List<Factory> findFactoriesProducing(Long itemId) {
+        return List.copyOf(factoriesPerItemId.getOrDefault(itemId, List.of()));
+    }
+
+    /**
+     * Finds the stores that sell the item with the given ID.
+     *
+     * @param itemId The ID of the item.
+     * @return An unmodifiable list of the stores, empty if no store sells the item.
+     */
+    public synchronized List<Store> findStoresSelling(Long itemId) {
+        return List.copyOf(storesPerItemId.getOrDefault(itemId, List.of()));
+    }
+
+    private void index(ItemContainer container, Item item) {
+        if (container instanceof Factory factory) {
+            addToBucket(factoriesPerItemId, item.getId(), factory);
+        } else if (container instanceof Store store) {
+            addToBucket(storesPerItemId, item.getId(), store);
+        }
+    }
+
+    private void unindex(ItemContainer container, Item item) {
+        if (container instanceof Factory factory) {
+            removeFromBucket(factoriesPerItemId, item.getId(), factory);
+        } else if (container instanceof Store store) {
+            removeFromBucket(storesPerItemId, item.getId(), store);
+        }
+    }
+
+    private static <C> void addToBucket(Map<Long, List<C>> buckets, Long itemId, C container) {
+        List<C> bucket = buckets.computeIfAbsent(itemId, k -> new ArrayList<>());
+        for (C c : bucket) {
+            if (c == container) {
+                return;
+            }
+        }
+        bucket.add(container);
+    }
+
+    private static <C> void removeFromBucket(Map<Long, List<C>> buckets, Long itemId, C container) {
+        List<C> bucket = buckets.get(itemId);
+        if (bucket != null && bucket.removeIf(c -> c == container) && bucket.isEmpty()) {
+            buckets.remove(itemId);
+        }
+    }
+}
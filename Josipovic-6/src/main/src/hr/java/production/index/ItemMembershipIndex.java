@@ -0,0 +1,133 @@
+package hr.java.production.index;
+
+import hr.java.production.index.bitmap.RoaringItemBitmap;
+import hr.java.production.model.Item;
+import hr.java.production.model.ItemContainer;
+import hr.java.production.model.ItemContainerListener;
+
+import java.util.*;
+
+/**
+ * Keeps the item membership of every registered factory and store as a {@link RoaringItemBitmap}.
+ * <p>
+ * Every item gets a dense index in the order it is first seen, so the bitmaps stay compact, and the
+ * bitmaps follow the containers' {@code setItems} and typed item additions. Set algebra across containers,
+ * e.g. "items produced by factory A but not sold by any store", then runs on the bitmaps
+ * instead of on {@code HashSet} and {@code TreeSet} instances.
+ */
+public class ItemMembershipIndex implements ItemContainerListener {
+    private final Map<Long, Integer> denseIndexPerItemId = new HashMap<>();
+    private final List<Item> itemsPerDenseIndex = new ArrayList<>();
+    private final Map<ItemContainer, RoaringItemBitmap> bitmapPerContainer = new IdentityHashMap<>();
+
+    /**
+     * Builds the bitmap of a container and starts listening to its changes.
+     *
+     * @param container The factory or store to register.
+     */
+    public synchronized void register(ItemContainer container) {
+        bitmapPerContainer.put(container, toBitmap(container.getItems()));
+        container.addContainerListener(this);
+    }
+
+    public synchronized void unregister(ItemContainer container) {
+        container.removeContainerListener(this);
+        bitmapPerContainer.remove(container);
+    }
+
+    @Override
+    public synchronized void itemAdded(ItemContainer container, Item item) {
+        RoaringItemBitmap bitmap = bitmapPerContainer.get(container);
+        if (bitmap != null) {
+            bitmap.add(getDenseIndex(item));
+        }
+    }
+
+    @Override
+    public synchronized void itemsReplaced(ItemContainer container, Set<Item> oldItems, Set<Item> newItems) {
+        if (bitmapPerContainer.containsKey(container)) {
+            bitmapPerContainer.put(container, toBitmap(newItems == null ? Set.of() : newItems));
+        }
+    }
+
+    /**
+     * Returns a copy of the membership bitmap of a registered container.
+     *
+     * @param container The registered container.
+     * @return The dense indexes of the container's items, or an empty bitmap if the container is not registered.
+     */
+    public synchronized RoaringItemBitmap getBitmap(ItemContainer container) {
+        RoaringItemBitmap bitmap = bitmapPerContainer.get(container);
+        return bitmap == null ? new RoaringItemBitmap() : bitmap.copy();
+    }
+
+    /**
+     * Returns the items contained in at least one of the given containers.
+     */
+    public synchronized RoaringItemBitmap union(Collection<? extends ItemContainer> containers) {
+        RoaringItemBitmap result = new RoaringItemBitmap();
+        for (ItemContainer container : containers) {
+            result = RoaringItemBitmap.or(result, bitmapPerContainer.getOrDefault(container, new RoaringItemBitmap()));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the items contained in every one of the given containers.
+     */
+    public synchronized RoaringItemBitmap intersection(Collection<? extends ItemContainer> containers) {
+        RoaringItemBitmap result = null;
+        for (ItemContainer container : containers) {
+            RoaringItemBitmap bitmap = bitmapPerContainer.getOrDefault(container, new RoaringItemBitmap());
+            result = result == null ? bitmap.copy() : RoaringItemBitmap.and(result, bitmap);
+        }
+        return result == null ? new RoaringItemBitmap() : result;
+    }
+
+    /**
+     * Returns the items of a container that are not contained in any of the other containers,
+     * e.g. the items a factory produces that no store sells.
+     *
+     * @param container The container whose items are considered.
+     * @param others    The containers whose items are excluded.
+     * @return The dense indexes of the remaining items.
+     */
+    public synchronized RoaringItemBitmap difference(ItemContainer container, Collection<? extends ItemContainer> others) {
+        return RoaringItemBitmap.andNot(bitmapPerContainer.getOrDefault(container, new RoaringItemBitmap()), union(others));
+    }
+
+    /**
+     * Resolves the dense indexes of a bitmap back to the items.
+     *
+     * @param bitmap A bitmap returned by this index.
+     * @return The items, ordered by dense index.
+     */
+    public synchronized List<Item> toItems(RoaringItemBitmap bitmap) {
+        List<Item> items = new ArrayList<>(bitmap.getCardinality());
+        bitmap.forEach(denseIndex -> items.add(itemsPerDenseIndex.get(denseIndex)));
+        return items;
+    }
+
+    /**
+     * Returns the dense index of an item, assigning the next free one if the item has not been seen yet.
+     *
+     * @param item The item.
+     * @return The dense index of the item.
+     */
+    public synchronized int getDenseIndex(Item item) {
+        Integer denseIndex = denseIndexPerItemId.get(item.getId());
+        if (denseIndex == null) {
+            denseIndex = itemsPerDenseIndex.size();
+            denseIndexPerItemId.put(item.getId(), denseIndex);
+            itemsPerDenseIndex.add(item);
+        }
+        return denseIndex;
+    }
+
+    private RoaringItemBitmap toBitmap(Collection<Item> items) {
+        RoaringItemBitmap bitmap = new RoaringItemBitmap();
+        items.forEach(item -> bitmap.add(getDenseIndex(item)));
+        bitmap.runOptimize();
+        return bitmap;
+    }
+}
@@ -0,0 +1,181 @@
+package hr.java.production.index;
+
+import hr.java.production.model.Item;
+import hr.java.production.model.ItemChangeListener;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Sorted secondary index over a single value of an {@link Item}, such as its discounted price or volume.
+ * <p>
+ * Items are kept in a {@link TreeMap} keyed by the indexed value, so range queries and counts cost
+ * O(log n + k) for k matching items. Each key is computed once when an item is added and again only when
+ * the item reports a change, because the index registers itself as the item's {@link ItemChangeListener}.
+ * Items for which the key function returns {@code null} (e.g. kilocalories of a non-edible item) are not indexed.
+ * Items are kept by identity, since their {@code hashCode} changes together with their values.
+ *
+ * @param <K> The type of the indexed value.
+ */
+public class ItemRangeIndex<K extends Comparable<K>> implements ItemChangeListener {
+    private final Function<Item, K> keyFunction;
+    private final TreeMap<K, List<Item>> itemsPerKey = new TreeMap<>();
+    private final Map<Item, K> keyPerItem = new IdentityHashMap<>();
+
+    /**
+     * Constructs a new empty index.
+     *
+     * @param keyFunction Calculates the indexed value of an item, or returns {@code null} if the item has none.
+     */
+    public ItemRangeIndex(Function<Item, K> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Adds an item to the index and starts listening to its changes.
+     * Adding an item that is already indexed has no effect.
+     *
+     * @param item The item to add.
+     */
+    public synchronized void add(Item item) {
+        if (keyPerItem.containsKey(item)) {
+            return;
+        }
+        K key = keyFunction.apply(item);
+        keyPerItem.put(item, key);
+        if (key != null) {
+            itemsPerKey.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+        }
+        item.addChangeListener(this);
+    }
+
+    /**
+     * Removes an item from the index and stops listening to its changes.
+     *
+     * @param item The item to remove.
+     */
+    public synchronized void remove(Item item) {
+        if (!keyPerItem.containsKey(item)) {
+            return;
+        }
+        removeFromBucket(item, keyPerItem.remove(item));
+        item.removeChangeListener(this);
+    }
+
+    /**
+     * Moves a changed item to the position of its new key.
+     *
+     * @param item The item whose value has changed.
+     */
+    @Override
+    public synchronized void itemChanged(Item item) {
+        if (!keyPerItem.containsKey(item)) {
+            return;
+        }
+        K oldKey = keyPerItem.get(item), newKey = keyFunction.apply(item);
+        if (Objects.equals(oldKey, newKey)) {
+            return;
+        }
+        removeFromBucket(item, oldKey);
+        keyPerItem.put(item, newKey);
+        if (newKey != null) {
+            itemsPerKey.computeIfAbsent(newKey, k -> new ArrayList<>()).add(item);
+        }
+    }
+
+    /**
+     * Returns the indexed value of an item as it was when the item was added or last changed.
+     *
+     * @param item The item to look up.
+     * @return The indexed value, or an empty {@code Optional} if the item is not indexed or has no value.
+     */
+    public synchronized Optional<K> getKey(Item item) {
+        return Optional.ofNullable(keyPerItem.get(item));
+    }
+
+    /**
+     * Finds all items whose value lies in the given range, ordered by value.
+     *
+     * @param from          The lower bound of the range.
+     * @param fromInclusive Whether items with a value equal to {@code from} are included.
+     * @param to            The upper bound of the range.
+     * @param toInclusive   Whether items with a value equal to {@code to} are included.
+     * @return A new list of the matching items.
+     */
+    public synchronized List<Item> findBetween(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        if (from.compareTo(to) > 0) {
+            return new ArrayList<>();
+        }
+        return flatten(itemsPerKey.subMap(from, fromInclusive, to, toInclusive));
+    }
+
+    public List<Item> findBetween(K from, K to) {
+        return findBetween(from, true, to, true);
+    }
+
+    public synchronized List<Item> findAbove(K from) {
+        return flatten(itemsPerKey.tailMap(from, false));
+    }
+
+    public synchronized List<Item> findBelow(K to) {
+        return flatten(itemsPerKey.headMap(to, false));
+    }
+
+    /**
+     * Counts the items whose value lies in the given range, bounds included.
+     *
+     * @param from The lower bound of the range.
+     * @param to   The upper bound of the range.
+     * @return The number of matching items.
+     */
+    public synchronized int countBetween(K from, K to) {
+        if (from.compareTo(to) > 0) {
+            return 0;
+        }
+        return count(itemsPerKey.subMap(from, true, to, true));
+    }
+
+    public synchronized int countAbove(K from) {
+        return count(itemsPerKey.tailMap(from, false));
+    }
+
+    public synchronized int countBelow(K to) {
+        return count(itemsPerKey.headMap(to, false));
+    }
+
+    public synchronized Optional<K> getMinKey() {
+        return itemsPerKey.isEmpty() ? Optional.empty() : Optional.of(itemsPerKey.firstKey());
+    }
+
+    public synchronized Optional<K> getMaxKey() {
+        return itemsPerKey.isEmpty() ? Optional.empty() : Optional.of(itemsPerKey.lastKey());
+    }
+
+    public synchronized int size() {
+        return keyPerItem.size();
+    }
+
+    private void removeFromBucket(Item item, K key) {
+        if (key == null) {
+            return;
+        }
+        List<Item> bucket = itemsPerKey.get(key);
+        if (bucket != null && bucket.removeIf(i -> i == item) && bucket.isEmpty()) {
+            itemsPerKey.remove(key);
+        }
+    }
+
+    private static List<Item> flatten(NavigableMap<?, List<Item>> range) {
+        List<Item> items = new ArrayList<>();
+        range.values().forEach(items::addAll);
+        return items;
+    }
+
+    private static int count(NavigableMap<?, List<Item>> range) {
+        int count = 0;
+        for (List<Item> bucket : range.values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,86 @@
+package hr.java.production.index;
+
+import hr.java.production.model.Edible;
+import hr.java.production.model.Item;
+import hr.java.production.model.Technical;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Groups the sorted secondary indexes over the values that inventory queries filter on:
+ * discounted selling price, volume, kilocalories of edible items and remaining warranty of technical items.
+ * <p>
+ * All indexes follow item changes on their own, so the instance stays valid for as long as the indexed
+ * items are only modified through their setters.
+ */
+public class ItemRangeIndexes {
+    private final ItemRangeIndex<BigDecimal> discountedPriceIndex = new ItemRangeIndex<>(Item::getDiscountedSellingPrice);
+    private final ItemRangeIndex<BigDecimal> volumeIndex = new ItemRangeIndex<>(Item::calculateVolume);
+    private final ItemRangeIndex<Integer> kilocaloriesIndex = new ItemRangeIndex<>(item -> item instanceof Edible edible ? edible.calculateKilocalories() : null);
+    private final ItemRangeIndex<Integer> warrantyMonthsIndex = new ItemRangeIndex<>(item -> item instanceof Technical technical ? technical.getRemainingWarrantyInMonths() : null);
+
+    /**
+     * Builds the indexes over the given items.
+     *
+     * @param items The items to index.
+     * @return The new indexes.
+     */
+    public static ItemRangeIndexes of(Collection<Item> items) {
+        ItemRangeIndexes indexes = new ItemRangeIndexes();
+        items.forEach(indexes::add);
+        return indexes;
+    }
+
+    public void add(Item item) {
+        discountedPriceIndex.add(item);
+        volumeIndex.add(item);
+        kilocaloriesIndex.add(item);
+        warrantyMonthsIndex.add(item);
+    }
+
+    public void remove(Item item) {
+        discountedPriceIndex.remove(item);
+        volumeIndex.remove(item);
+        kilocaloriesIndex.remove(item);
+        warrantyMonthsIndex.remove(item);
+    }
+
+    public ItemRangeIndex<BigDecimal> getDiscountedPriceIndex() {
+        return discountedPriceIndex;
+    }
+
+    public ItemRangeIndex<BigDecimal> getVolumeIndex() {
+        return volumeIndex;
+    }
+
+    public ItemRangeIndex<Integer> getKilocaloriesIndex() {
+        return kilocaloriesIndex;
+    }
+
+    public ItemRangeIndex<Integer> getWarrantyMonthsIndex() {
+        return warrantyMonthsIndex;
+    }
+
+    /**
+     * Finds all items with a discounted selling price between the two values, bounds included.
+     *
+     * @param from The lowest price.
+     * @param to   The highest price.
+     * @return The matching items, from the cheapest up.
+     */
+    public List<Item> findItemsWithDiscountedPriceBetween(BigDecimal from, BigDecimal to) {
+        return discountedPriceIndex.findBetween(from, to);
+    }
+
+    /**
+     * Finds all items with a volume strictly greater than the given value.
+     *
+     * @param volume The volume to compare with.
+     * @return The matching items, from the smallest volume up.
+     */
+    public List<Item> findItemsWithVolumeAbove(BigDecimal volume) {
+        return volumeIndex.findAbove(volume);
+    }
+}
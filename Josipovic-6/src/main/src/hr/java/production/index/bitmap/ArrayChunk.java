@@ -0,0 +1,140 @@
+package hr.java.production.index.bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Sparse chunk that keeps its values in a sorted {@code char} array.
+ */
+final class ArrayChunk extends Chunk {
+    private char[] values;
+    private int cardinality;
+
+    ArrayChunk() {
+        this(new char[4], 0);
+    }
+
+    private ArrayChunk(char[] values, int cardinality) {
+        this.values = values;
+        this.cardinality = cardinality;
+    }
+
+    static ArrayChunk fromWords(long[] words, int cardinality) {
+        char[] values = new char[cardinality];
+        int position = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                values[position++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return new ArrayChunk(values, cardinality);
+    }
+
+    @Override
+    Chunk add(char value) {
+        int position = Arrays.binarySearch(values, 0, cardinality, value);
+        if (position >= 0) {
+            return this;
+        }
+        if (cardinality == MAX_ARRAY_SIZE) {
+            long[] words = toWords();
+            words[value >>> 6] |= 1L << value;
+            return new BitmapChunk(words, cardinality + 1);
+        }
+        int insertAt = -position - 1;
+        if (cardinality == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, values.length * 2));
+        }
+        System.arraycopy(values, insertAt, values, insertAt + 1, cardinality - insertAt);
+        values[insertAt] = value;
+        cardinality++;
+        return this;
+    }
+
+    @Override
+    Chunk remove(char value) {
+        int position = Arrays.binarySearch(values, 0, cardinality, value);
+        if (position < 0) {
+            return this;
+        }
+        System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+        cardinality--;
+        return cardinality == 0 ? null : this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    long[] toWords() {
+        long[] words = new long[WORD_COUNT];
+        for (int i = 0; i < cardinality; i++) {
+            words[values[i] >>> 6] |= 1L << values[i];
+        }
+        return words;
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        for (int i = 0; i < cardinality; i++) {
+            consumer.accept(high | values[i]);
+        }
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 2 * cardinality;
+    }
+
+    /**
+     * Keeps the values that are (or are not) contained in the other chunk.
+     */
+    Chunk filter(Chunk other, boolean keepContained) {
+        char[] result = new char[cardinality];
+        int size = 0;
+        for (int i = 0; i < cardinality; i++) {
+            if (other.contains(values[i]) == keepContained) {
+                result[size++] = values[i];
+            }
+        }
+        return size == 0 ? null : new ArrayChunk(result, size);
+    }
+
+    /**
+     * Merges two sorted arrays whose combined size fits into an array chunk.
+     */
+    Chunk merge(ArrayChunk other) {
+        char[] result = new char[cardinality + other.cardinality];
+        int i = 0, j = 0, size = 0;
+        while (i < cardinality && j < other.cardinality) {
+            char a = values[i], b = other.values[j];
+            if (a < b) {
+                result[size++] = a;
+                i++;
+            } else if (b < a) {
+                result[size++] = b;
+                j++;
+            } else {
+                result[size++] = a;
+                i++;
+                j++;
+            }
+        }
+        while (i < cardinality) {
+            result[size++] = values[i++];
+        }
+        while (j < other.cardinality) {
+            result[size++] = other.values[j++];
+        }
+        return new ArrayChunk(result, size);
+    }
+}
@@ -0,0 +1,68 @@
+package hr.java.production.index.bitmap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Dense chunk that keeps one bit for each of the 65536 possible values.
+ */
+final class BitmapChunk extends Chunk {
+    private final long[] words;
+    private int cardinality;
+
+    BitmapChunk(long[] words, int cardinality) {
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    @Override
+    Chunk add(char value) {
+        long mask = 1L << value;
+        if ((words[value >>> 6] & mask) == 0) {
+            words[value >>> 6] |= mask;
+            cardinality++;
+        }
+        return this;
+    }
+
+    @Override
+    Chunk remove(char value) {
+        long mask = 1L << value;
+        if ((words[value >>> 6] & mask) == 0) {
+            return this;
+        }
+        words[value >>> 6] &= ~mask;
+        cardinality--;
+        return cardinality <= MAX_ARRAY_SIZE ? ArrayChunk.fromWords(words, cardinality) : this;
+    }
+
+    @Override
+    boolean contains(char value) {
+        return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    long[] toWords() {
+        return words.clone();
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        for (int i = 0; i < WORD_COUNT; i++) {
+            long word = words[i];
+            while (word != 0) {
+                consumer.accept(high | (i << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 8 * WORD_COUNT;
+    }
+}
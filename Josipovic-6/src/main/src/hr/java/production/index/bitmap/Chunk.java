@@ -0,0 +1,98 @@
+package hr.java.production.index.bitmap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Holds the low 16 bits of all values in a {@link RoaringItemBitmap} that share the same high 16 bits.
+ * <p>
+ * A chunk is stored as a sorted array while it is sparse, as a 65536-bit bitmap while it is dense and as a
+ * list of runs when the values form long consecutive ranges. Mutating operations return the chunk that should
+ * replace the receiver, because they may switch the representation.
+ */
+abstract sealed class Chunk permits ArrayChunk, BitmapChunk, RunChunk {
+    static final int MAX_ARRAY_SIZE = 4096;
+    static final int WORD_COUNT = 1 << 10;
+
+    abstract Chunk add(char value);
+
+    abstract Chunk remove(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    abstract long[] toWords();
+
+    abstract void forEach(int high, IntConsumer consumer);
+
+    abstract int sizeInBytes();
+
+    Chunk runOptimize() {
+        return fromWords(toWords());
+    }
+
+    /**
+     * Builds the smallest chunk representation of the values set in the given words.
+     *
+     * @param words The 1024 words of a 65536-bit bitmap. The array may be kept by the returned chunk.
+     * @return The chunk, or {@code null} if no bit is set.
+     */
+    static Chunk fromWords(long[] words) {
+        int cardinality = 0, runs = 0;
+        long previousWord = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+            // A run starts wherever a set bit follows a clear bit, including across word boundaries.
+            runs += Long.bitCount(word & ~((word << 1) | (previousWord >>> 63)));
+            previousWord = word;
+        }
+        if (cardinality == 0) {
+            return null;
+        }
+        int arrayBytes = 2 * cardinality, bitmapBytes = 8 * WORD_COUNT, runBytes = 4 * runs;
+        if (runBytes < Math.min(arrayBytes, bitmapBytes)) {
+            return RunChunk.fromWords(words, runs);
+        }
+        if (cardinality <= MAX_ARRAY_SIZE) {
+            return ArrayChunk.fromWords(words, cardinality);
+        }
+        return new BitmapChunk(words, cardinality);
+    }
+
+    static Chunk and(Chunk a, Chunk b) {
+        if (a instanceof ArrayChunk arrayA) {
+            return arrayA.filter(b, true);
+        }
+        if (b instanceof ArrayChunk arrayB) {
+            return arrayB.filter(a, true);
+        }
+        long[] words = a.toWords(), other = b.toWords();
+        for (int i = 0; i < WORD_COUNT; i++) {
+            words[i] &= other[i];
+        }
+        return fromWords(words);
+    }
+
+    static Chunk or(Chunk a, Chunk b) {
+        if (a instanceof ArrayChunk arrayA && b instanceof ArrayChunk arrayB
+                && arrayA.cardinality() + arrayB.cardinality() <= MAX_ARRAY_SIZE) {
+            return arrayA.merge(arrayB);
+        }
+        long[] words = a.toWords(), other = b.toWords();
+        for (int i = 0; i < WORD_COUNT; i++) {
+            words[i] |= other[i];
+        }
+        return fromWords(words);
+    }
+
+    static Chunk andNot(Chunk a, Chunk b) {
+        if (a instanceof ArrayChunk arrayA) {
+            return arrayA.filter(b, false);
+        }
+        long[] words = a.toWords(), other = b.toWords();
+        for (int i = 0; i < WORD_COUNT; i++) {
+            words[i] &= ~other[i];
+        }
+        return fromWords(words);
+    }
+}
@@ -0,0 +1,256 @@
+package hr.java.production.index.bitmap;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Compressed bitmap of non-negative {@code int} values, such as the dense item indexes of a container's items.
+ * <p>
+ * Values are split by their high 16 bits into chunks, and every chunk picks the cheapest of three
+ * representations: a sorted array for sparse chunks, a plain bitmap for dense chunks and a run list for
+ * consecutive ranges. A membership then costs between two and four bytes instead of a {@code HashSet} or
+ * {@code TreeSet} entry, and union, intersection and difference work chunk by chunk on arrays or whole words.
+ * <p>
+ * This class is not thread-safe. The static set operations never modify their arguments.
+ */
+public class RoaringItemBitmap {
+    private char[] keys = new char[0];
+    private Chunk[] chunks = new Chunk[0];
+    private int size;
+
+    /**
+     * Creates a bitmap containing the given values.
+     *
+     * @param values The values to add.
+     * @return The new bitmap.
+     */
+    public static RoaringItemBitmap of(int... values) {
+        RoaringItemBitmap bitmap = new RoaringItemBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        int position = findChunk(high);
+        if (position < 0) {
+            position = -position - 1;
+            insertChunk(position, high, new ArrayChunk());
+        }
+        chunks[position] = chunks[position].add((char) value);
+    }
+
+    public void remove(int value) {
+        if (value < 0) {
+            return;
+        }
+        int position = findChunk((char) (value >>> 16));
+        if (position < 0) {
+            return;
+        }
+        Chunk chunk = chunks[position].remove((char) value);
+        if (chunk == null) {
+            removeChunk(position);
+        } else {
+            chunks[position] = chunk;
+        }
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int position = findChunk((char) (value >>> 16));
+        return position >= 0 && chunks[position].contains((char) value);
+    }
+
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += chunks[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Estimates the memory taken by the stored values, without object headers.
+     *
+     * @return The size of all chunks and chunk keys in bytes.
+     */
+    public long getSizeInBytes() {
+        long bytes = 2L * size;
+        for (int i = 0; i < size; i++) {
+            bytes += chunks[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Converts every chunk to its smallest representation, turning consecutive ranges into runs.
+     * Call it once a bitmap has been fully built.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            chunks[i] = chunks[i].runOptimize();
+        }
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            chunks[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    public IntStream stream() {
+        IntStream.Builder builder = IntStream.builder();
+        forEach(builder);
+        return builder.build();
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return stream().iterator();
+    }
+
+    public int[] toArray() {
+        return stream().toArray();
+    }
+
+    public RoaringItemBitmap copy() {
+        return or(this, new RoaringItemBitmap());
+    }
+
+    /**
+     * Returns the values contained in either bitmap.
+     */
+    public static RoaringItemBitmap or(RoaringItemBitmap a, RoaringItemBitmap b) {
+        RoaringItemBitmap result = new RoaringItemBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.appendChunk(a.keys[i], Chunk.or(a.chunks[i], new ArrayChunk()));
+                i++;
+            } else if (i == a.size || b.keys[j] < a.keys[i]) {
+                result.appendChunk(b.keys[j], Chunk.or(b.chunks[j], new ArrayChunk()));
+                j++;
+            } else {
+                result.appendChunk(a.keys[i], Chunk.or(a.chunks[i], b.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values contained in both bitmaps.
+     */
+    public static RoaringItemBitmap and(RoaringItemBitmap a, RoaringItemBitmap b) {
+        RoaringItemBitmap result = new RoaringItemBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (b.keys[j] < a.keys[i]) {
+                j++;
+            } else {
+                result.appendChunk(a.keys[i], Chunk.and(a.chunks[i], b.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values contained in the first bitmap but not in the second.
+     */
+    public static RoaringItemBitmap andNot(RoaringItemBitmap a, RoaringItemBitmap b) {
+        RoaringItemBitmap result = new RoaringItemBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                result.appendChunk(a.keys[i], Chunk.andNot(a.chunks[i], b.chunks[j]));
+            } else {
+                result.appendChunk(a.keys[i], Chunk.or(a.chunks[i], new ArrayChunk()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values contained in at least one of the bitmaps.
+     */
+    public static RoaringItemBitmap or(Iterable<RoaringItemBitmap> bitmaps) {
+        RoaringItemBitmap result = new RoaringItemBitmap();
+        for (RoaringItemBitmap bitmap : bitmaps) {
+            result = or(result, bitmap);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RoaringItemBitmap that = (RoaringItemBitmap) o;
+        return Arrays.equals(toArray(), that.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "RoaringItemBitmap{" + "cardinality=" + getCardinality() + ", chunks=" + size + ", sizeInBytes=" + getSizeInBytes() + '}';
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Bitmap values must not be negative: " + value);
+        }
+    }
+
+    private int findChunk(char high) {
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertChunk(int position, char high, Chunk chunk) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            chunks = Arrays.copyOf(chunks, capacity);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(chunks, position, chunks, position + 1, size - position);
+        keys[position] = high;
+        chunks[position] = chunk;
+        size++;
+    }
+
+    private void removeChunk(int position) {
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(chunks, position + 1, chunks, position, size - position - 1);
+        size--;
+        chunks[size] = null;
+    }
+
+    private void appendChunk(char high, Chunk chunk) {
+        if (chunk != null) {
+            insertChunk(size, high, chunk);
+        }
+    }
+}
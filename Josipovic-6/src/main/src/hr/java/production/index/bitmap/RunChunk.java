@@ -0,0 +1,110 @@
+package hr.java.production.index.bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Chunk that keeps its values as runs of consecutive numbers, each stored as a start and a length.
+ * <p>
+ * Run chunks are produced by {@link Chunk#runOptimize()} and by set operations on dense ranges.
+ * A single value is added or removed by going through the bitmap form, because runs mostly describe
+ * sets that no longer change after loading.
+ */
+final class RunChunk extends Chunk {
+    private final char[] starts;
+    private final char[] lengthsMinusOne;
+    private final int cardinality;
+
+    private RunChunk(char[] starts, char[] lengthsMinusOne, int cardinality) {
+        this.starts = starts;
+        this.lengthsMinusOne = lengthsMinusOne;
+        this.cardinality = cardinality;
+    }
+
+    static RunChunk fromWords(long[] words, int runs) {
+        char[] starts = new char[runs], lengthsMinusOne = new char[runs];
+        int run = -1, cardinality = 0;
+        int previous = -2;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int value = (i << 6) + Long.numberOfTrailingZeros(word);
+                if (value == previous + 1) {
+                    lengthsMinusOne[run]++;
+                } else {
+                    starts[++run] = (char) value;
+                }
+                previous = value;
+                cardinality++;
+                word &= word - 1;
+            }
+        }
+        return new RunChunk(starts, lengthsMinusOne, cardinality);
+    }
+
+    @Override
+    Chunk add(char value) {
+        if (contains(value)) {
+            return this;
+        }
+        long[] words = toWords();
+        words[value >>> 6] |= 1L << value;
+        return fromWords(words);
+    }
+
+    @Override
+    Chunk remove(char value) {
+        if (!contains(value)) {
+            return this;
+        }
+        long[] words = toWords();
+        words[value >>> 6] &= ~(1L << value);
+        return fromWords(words);
+    }
+
+    @Override
+    boolean contains(char value) {
+        int position = Arrays.binarySearch(starts, value);
+        if (position >= 0) {
+            return true;
+        }
+        int run = -position - 2;
+        return run >= 0 && value - starts[run] <= lengthsMinusOne[run];
+    }
+
+    @Override
+    int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    long[] toWords() {
+        long[] words = new long[WORD_COUNT];
+        for (int run = 0; run < starts.length; run++) {
+            int start = starts[run], end = start + lengthsMinusOne[run];
+            for (int value = start; value <= end; ) {
+                int wordIndex = value >>> 6, lastInWord = Math.min(end, (wordIndex << 6) + 63);
+                int from = value & 63, to = lastInWord & 63;
+                long mask = (to == 63 ? -1L : (1L << (to + 1)) - 1) & (-1L << from);
+                words[wordIndex] |= mask;
+                value = lastInWord + 1;
+            }
+        }
+        return words;
+    }
+
+    @Override
+    void forEach(int high, IntConsumer consumer) {
+        for (int run = 0; run < starts.length; run++) {
+            int start = starts[run], end = start + lengthsMinusOne[run];
+            for (int value = start; value <= end; value++) {
+                consumer.accept(high | value);
+            }
+        }
+    }
+
+    @Override
+    int sizeInBytes() {
+        return 4 * starts.length;
+    }
+}
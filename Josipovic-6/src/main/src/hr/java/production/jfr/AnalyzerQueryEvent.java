@@ -0,0 +1,22 @@
+package hr.java.production.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded for every query answered by {@code InventoryAnalyzer}.
+ * Queries that call other queries produce nested events.
+ */
+@Name("hr.java.production.AnalyzerQuery")
+@Label("Inventory Analyzer Query")
+@Category({"Production", "Analysis"})
+@Description("One query of InventoryAnalyzer")
+@StackTrace(false)
+@Threshold("1 ms")
+public class AnalyzerQueryEvent extends Event {
+    @Label("Query")
+    public String query;
+
+    @Label("Input Size")
+    @Description("Number of items, stores or factories the query was given")
+    public int inputSize;
+}
@@ -0,0 +1,24 @@
+package hr.java.production.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded once per input file read by {@code FileUtils}, spanning the whole read.
+ */
+@Name("hr.java.production.FileRead")
+@Label("Input File Read")
+@Category({"Production", "Input"})
+@Description("Reading and parsing of one input file")
+@StackTrace(false)
+public class FileReadEvent extends Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Records")
+    @Description("Number of records parsed from the file")
+    public long records;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
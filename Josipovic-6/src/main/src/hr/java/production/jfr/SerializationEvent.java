@@ -0,0 +1,27 @@
+package hr.java.production.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded for every list written by {@code FileUtils.serializeList} or read by {@code FileUtils.deserializeList}.
+ */
+@Name("hr.java.production.Serialization")
+@Label("Serialization")
+@Category({"Production", "Serialization"})
+@Description("Serialization or deserialization of a list of entities")
+@StackTrace(false)
+public class SerializationEvent extends Event {
+    @Label("Operation")
+    @Description("serialize or deserialize")
+    public String operation;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Entities")
+    public int entities;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
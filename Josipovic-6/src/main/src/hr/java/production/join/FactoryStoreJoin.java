@@ -0,0 +1,118 @@
+package hr.java.production.join;
+
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.ItemContainer;
+import hr.java.production.model.Store;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Hash join between factories and stores on the IDs of the items they share.
+ * <p>
+ * The side with fewer item memberships is loaded into a hash table keyed by item ID, and every container
+ * of the other side probes it once per item, so a join costs O(F + S + memberships) instead of the
+ * O(F × S × items) of nested loops, plus sorting the links. The side is chosen for cost only: the result is the
+ * same whichever side is hashed. When the probe side has at least {@link #PARALLEL_THRESHOLD} containers,
+ * it probes the read-only hash table in parallel.
+ */
+public class FactoryStoreJoin {
+    public static final int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * Joins factories and stores on their shared items. The join runs when this method is called, in parallel
+     * for large inputs, and the links are returned as a sequential stream.
+     * <p>
+     * Links are ordered by the position of the factory in {@code factories} and then of the store in
+     * {@code stores}, and the shared items of a link follow the order of the store's items.
+     *
+     * @param factories The factories to join.
+     * @param stores    The stores to join.
+     * @return A stream with one link per factory and store that share at least one item.
+     */
+    public static Stream<SupplyLink> join(List<Factory> factories, List<Store> stores) {
+        List<Match> matches = countMemberships(factories) <= countMemberships(stores)
+                ? probe(buildHashTable(factories), stores, true)
+                : probe(buildHashTable(stores), factories, false);
+        return matches.stream()
+                .sorted(Comparator.comparingInt(Match::factoryIndex).thenComparingInt(Match::storeIndex))
+                .map(match -> SupplyLink.of(factories.get(match.factoryIndex()), stores.get(match.storeIndex()), match.sharedItems()));
+    }
+
+    /**
+     * Joins factories and stores and collects the links into a list, e.g. for printing a supply-chain report.
+     *
+     * @param factories The factories to join.
+     * @param stores    The stores to join.
+     * @return A list with one link per factory and store that share at least one item, ordered like {@link #join}.
+     */
+    public static List<SupplyLink> joinToList(List<Factory> factories, List<Store> stores) {
+        return join(factories, stores).toList();
+    }
+
+    private static Map<Long, List<Membership>> buildHashTable(List<? extends ItemContainer> buildSide) {
+        Map<Long, List<Membership>> membershipsPerItemId = new HashMap<>();
+        for (int containerIndex = 0; containerIndex < buildSide.size(); containerIndex++) {
+            int itemPosition = 0;
+            for (Item item : buildSide.get(containerIndex).getItems()) {
+                membershipsPerItemId.computeIfAbsent(item.getId(), k -> new ArrayList<>(2))
+                        .add(new Membership(containerIndex, itemPosition++));
+            }
+        }
+        return membershipsPerItemId;
+    }
+
+    /**
+     * Probes the hash table with every container of the probe side. The matches keep the order of the probe side,
+     * also when it is probed in parallel, and the shared items of every match are in the order of the store's items.
+     */
+    private static List<Match> probe(Map<Long, List<Membership>> hashTable, List<? extends ItemContainer> probeSide,
+                                     boolean probingStores) {
+        IntStream probeIndexes = IntStream.range(0, probeSide.size());
+        if (probeSide.size() >= PARALLEL_THRESHOLD) {
+            probeIndexes = probeIndexes.parallel();
+        }
+        return probeIndexes.boxed().flatMap(probeIndex -> {
+            Map<Integer, List<SharedItem>> sharedItemsPerMatch = new LinkedHashMap<>();
+            int itemPosition = 0;
+            for (Item item : probeSide.get(probeIndex).getItems()) {
+                for (Membership membership : hashTable.getOrDefault(item.getId(), List.of())) {
+                    int storePosition = probingStores ? itemPosition : membership.itemPosition();
+                    sharedItemsPerMatch.computeIfAbsent(membership.containerIndex(), k -> new ArrayList<>())
+                            .add(new SharedItem(item, storePosition));
+                }
+                itemPosition++;
+            }
+            return sharedItemsPerMatch.entrySet().stream().map(entry -> {
+                List<SharedItem> sharedItems = entry.getValue();
+                if (!probingStores) {
+                    sharedItems.sort(Comparator.comparingInt(SharedItem::storePosition));
+                }
+                List<Item> items = sharedItems.stream().map(SharedItem::item).toList();
+                return probingStores ? new Match(entry.getKey(), probeIndex, items) : new Match(probeIndex, entry.getKey(), items);
+            });
+        }).toList();
+    }
+
+    private static long countMemberships(List<? extends ItemContainer> containers) {
+        long memberships = 0;
+        for (ItemContainer container : containers) {
+            memberships += container.getItems().size();
+        }
+        return memberships;
+    }
+
+    /**
+     * An item of a build-side container and its position among the container's items.
+     */
+    private record Membership(int containerIndex, int itemPosition) {
+    }
+
+    private record SharedItem(Item item, int storePosition) {
+    }
+
+    private record Match(int factoryIndex, int storeIndex, List<Item> sharedItems) {
+    }
+}
@@ -0,0 +1,30 @@
+package hr.java.production.join;
+
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.Store;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Pairs a factory with a store that sells at least one of the items the factory produces.
+ *
+ * @param factory              The producing factory.
+ * @param store                The selling store.
+ * @param sharedItems          The items both produced by the factory and sold by the store.
+ * @param totalVolume          The sum of the volumes of the shared items.
+ * @param totalDiscountedPrice The sum of the discounted selling prices of the shared items.
+ */
+public record SupplyLink(Factory factory, Store store, List<Item> sharedItems, BigDecimal totalVolume,
+                         BigDecimal totalDiscountedPrice) {
+
+    static SupplyLink of(Factory factory, Store store, List<Item> sharedItems) {
+        BigDecimal totalVolume = BigDecimal.ZERO, totalDiscountedPrice = BigDecimal.ZERO;
+        for (Item item : sharedItems) {
+            totalVolume = totalVolume.add(item.calculateVolume());
+            totalDiscountedPrice = totalDiscountedPrice.add(item.getDiscountedSellingPrice());
+        }
+        return new SupplyLink(factory, store, List.copyOf(sharedItems), totalVolume, totalDiscountedPrice);
+    }
+}
@@ -1,6 +1,8 @@
 package hr.java.production.main;
 
 import hr.java.production.enumeration.FilePath;
+import hr.java.production.enumeration.RenderMode;
+import hr.java.production.metrics.MetricsRegistry;
 import hr.java.production.model.*;
 import hr.java.production.utility.FileUtils;
 import hr.java.production.utility.InventoryAnalyzer;
@@ -8,6 +10,8 @@ import hr.java.production.utility.InventoryReportPrinter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -18,11 +22,17 @@ public class Main {
 
     public static void main(String[] args) {
         logger.info("Aplikacija započela s radom.");
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        MetricsRegistry.MetricsDump metricsDump = metrics.startPeriodicDump(Path.of(FilePath.METRICS.getPath()), Duration.ofSeconds(10));
 
         List<Category> categories = FileUtils.inputCategories();
         List<Item> items = FileUtils.inputItems(categories);
         List<Factory> factories = FileUtils.inputFactories(items);
-        List<Store> stores = FileUtils.inputStores(items);
+        List<Store> stores = FileUtils.inputStores(items, true);
+        metrics.gauge("inventory.items", items::size);
+        metrics.gauge("inventory.factories", factories::size);
+        metrics.gauge("inventory.stores", stores::size);
+        metrics.gauge("jvm.heap.used", () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
 
         Factory bestFactory = InventoryAnalyzer.findFactoryWithLargestVolumeOfAnItem(factories);
         System.out.println("The factory that produces an item with the greatest volume is: '" + bestFactory.getName() + "'.");
@@ -54,10 +64,10 @@ public class Main {
 
         //Sortiranje store artikala ScannerInputProcessor.chooseItems
         System.out.println("\n\nStore item volumes [Sorted with TreeSet - Descending]:");
-        InventoryReportPrinter.printContainersWithItemVolumes(stores);
+        InventoryReportPrinter.printContainersWithItemVolumes(stores, RenderMode.PARALLEL);
 
         System.out.println("\n\nFactory item volumes [Not sorted]:");
-        InventoryReportPrinter.printContainersWithItemVolumes(factories);
+        InventoryReportPrinter.printContainersWithItemVolumes(factories, RenderMode.PARALLEL);
         //Sortiranje store artikala ScannerInputProcessor.chooseItems
 
         //Srednja cijena svih artikala koji imaju natprosječni volumen
@@ -79,7 +89,7 @@ public class Main {
 
         //Korištenjem .map ispisati broj artikala u svakoj od trgovina i ispisati itemove sa tostringom
         System.out.println("Store Items Information:");
-        InventoryReportPrinter.printItemNamesInContainers(stores);
+        InventoryReportPrinter.printItemNamesInContainers(stores, RenderMode.PARALLEL);
         //Korištenjem .map ispisati broj artikala u svakoj od trgovina i ispisati itemove sa tostringom
 
 
@@ -100,6 +110,7 @@ public class Main {
         // LAB-6 Na kraju programa serijalizirati sve objekte klasa „Factory“i „Store“ koja imaju barem pet artikala.
 
 
+        metricsDump.close();
         logger.info("Aplikacija završila.");
     }
 
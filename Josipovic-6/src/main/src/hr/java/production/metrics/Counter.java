@@ -0,0 +1,27 @@
+package hr.java.production.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events, e.g. records read. Increments from many threads go to striped cells,
+ * so they do not contend on a single memory location.
+ */
+public class Counter {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    long getCountAndReset() {
+        return count.sumThenReset();
+    }
+}
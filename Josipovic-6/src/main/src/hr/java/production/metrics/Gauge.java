@@ -0,0 +1,10 @@
+package hr.java.production.metrics;
+
+/**
+ * Current value of something that goes up and down, e.g. the number of loaded items.
+ * The value is read only when a snapshot is taken.
+ */
+@FunctionalInterface
+public interface Gauge {
+    long getValue();
+}
@@ -0,0 +1,15 @@
+package hr.java.production.metrics;
+
+/**
+ * Summary of a {@link LatencyHistogram} at one point in time. All values are in nanoseconds.
+ *
+ * @param count The number of recorded values.
+ * @param mean  The exact mean of the recorded values.
+ * @param p50   The median, to within the bucket precision.
+ * @param p90   The 90th percentile.
+ * @param p99   The 99th percentile.
+ * @param p999  The 99.9th percentile.
+ * @param max   The exact largest recorded value.
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,141 @@
+package hr.java.production.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Named counters, gauges and latency histograms of the application.
+ * <p>
+ * Metrics are created on first use and kept for the life of the registry, so callers can look them up by name
+ * on every call. Names are dot-separated, starting with the stage, e.g. {@code fileutils.read.items.txt}.
+ * The loaders, analyzers, report printers and serializers record into the {@link #getDefault() default registry}.
+ */
+public class MetricsRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return lookUp(counters, name, key -> new Counter());
+    }
+
+    public LatencyHistogram histogram(String name) {
+        return lookUp(histograms, name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge, replacing an earlier gauge with the same name.
+     *
+     * @param name  The name of the gauge.
+     * @param gauge Supplies the current value when a snapshot is taken.
+     */
+    public void gauge(String name, Gauge gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Takes a snapshot of all metrics without resetting them.
+     *
+     * @return The current values.
+     */
+    public MetricsSnapshot snapshot() {
+        return snapshot(false);
+    }
+
+    /**
+     * Takes a snapshot of all metrics and resets the counters and histograms, so the next snapshot
+     * covers only what happened after this one. Gauges are not affected.
+     *
+     * @return The values since the previous reset.
+     */
+    public MetricsSnapshot snapshotAndReset() {
+        return snapshot(true);
+    }
+
+    /**
+     * Appends a snapshot of all metrics to a file at a fixed rate, and once more when the returned dump is closed.
+     *
+     * @param file   The file to append to. It is created if it does not exist.
+     * @param period The time between two snapshots.
+     * @return The running dump, which has to be closed to stop it.
+     */
+    public MetricsDump startPeriodicDump(Path file, Duration period) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable dump = () -> appendSnapshot(file);
+        scheduler.scheduleAtFixedRate(dump, period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+        return () -> {
+            scheduler.shutdownNow();
+            dump.run();
+        };
+    }
+
+    private void appendSnapshot(Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            Files.writeString(file, snapshot().format(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            String msg = "An IO Exception occurred while writing the metrics to the file: " + file + ".";
+            logger.error(msg, e);
+        }
+    }
+
+    private MetricsSnapshot snapshot(boolean reset) {
+        SortedMap<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, counter) -> counterValues.put(name, reset ? counter.getCountAndReset() : counter.getCount()));
+        SortedMap<String, Long> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, gauge) -> gaugeValues.put(name, gauge.getValue()));
+        SortedMap<String, HistogramSnapshot> histogramValues = new TreeMap<>();
+        histograms.forEach((name, histogram) -> histogramValues.put(name, histogram.snapshot(reset)));
+        return new MetricsSnapshot(Instant.now(), counterValues, gaugeValues, histogramValues);
+    }
+
+    /**
+     * Avoids the locking of {@code computeIfAbsent} on the common path, where the metric already exists.
+     */
+    private static <M> M lookUp(Map<String, M> metrics, String name, Function<String, M> factory) {
+        M metric = metrics.get(name);
+        return metric != null ? metric : metrics.computeIfAbsent(name, factory);
+    }
+
+    /**
+     * A periodic dump started by {@link #startPeriodicDump(Path, Duration)}.
+     */
+    @FunctionalInterface
+    public interface MetricsDump extends AutoCloseable {
+        /**
+         * Stops the dump and appends a final snapshot.
+         */
+        @Override
+        void close();
+    }
+}
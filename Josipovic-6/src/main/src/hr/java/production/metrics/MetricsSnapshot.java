@@ -0,0 +1,34 @@
+package hr.java.production.metrics;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.SortedMap;
+
+/**
+ * Values of all metrics of a {@link MetricsRegistry} at one point in time, ordered by metric name.
+ *
+ * @param takenAt    When the snapshot was taken.
+ * @param counters   The counts of the counters.
+ * @param gauges     The values of the gauges.
+ * @param histograms The distributions of the histograms.
+ */
+public record MetricsSnapshot(Instant takenAt, SortedMap<String, Long> counters, SortedMap<String, Long> gauges,
+                              SortedMap<String, HistogramSnapshot> histograms) {
+
+    /**
+     * Formats the snapshot as one line per metric, with durations in microseconds.
+     *
+     * @return The formatted snapshot, ending with a line separator.
+     */
+    public String format() {
+        String lineSeparator = System.lineSeparator();
+        StringBuilder text = new StringBuilder("# ").append(takenAt).append(lineSeparator);
+        counters.forEach((name, count) -> text.append("counter ").append(name).append(' ').append(count).append(lineSeparator));
+        gauges.forEach((name, value) -> text.append("gauge ").append(name).append(' ').append(value).append(lineSeparator));
+        histograms.forEach((name, histogram) -> text.append(String.format(Locale.ROOT,
+                "histogram %s count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p999=%.1fus max=%.1fus",
+                name, histogram.count(), histogram.mean() / 1000, histogram.p50() / 1000.0, histogram.p90() / 1000.0,
+                histogram.p99() / 1000.0, histogram.p999() / 1000.0, histogram.max() / 1000.0)).append(lineSeparator));
+        return text.toString();
+    }
+}
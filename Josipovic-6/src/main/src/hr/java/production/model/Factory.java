@@ -1,8 +1,10 @@
 package hr.java.production.model;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a factory in the production model.
@@ -11,6 +13,7 @@ import java.util.Set;
 public class Factory extends NamedEntity implements Serializable, ItemContainer {
     private Address address;
     private Set<Item> items;
+    private transient List<ItemContainerListener> containerListeners;
 
 
 
@@ -40,7 +43,26 @@ public class Factory extends NamedEntity implements Serializable, ItemContainer
     }
 
     public void setItems(Set<Item> items) {
+        Set<Item> oldItems = this.items;
         this.items = items;
+        if (containerListeners != null) {
+            containerListeners.forEach(listener -> listener.itemsReplaced(this, oldItems, items));
+        }
+    }
+
+    @Override
+    public void addContainerListener(ItemContainerListener listener) {
+        if (containerListeners == null) {
+            containerListeners = new CopyOnWriteArrayList<>();
+        }
+        containerListeners.add(listener);
+    }
+
+    @Override
+    public void removeContainerListener(ItemContainerListener listener) {
+        if (containerListeners != null) {
+            containerListeners.remove(listener);
+        }
     }
 
 
@@ -3,7 +3,9 @@ package hr.java.production.model;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents items in a production system by category, dimensions, cost, selling price, and discount.
@@ -13,6 +15,7 @@ public class Item extends NamedEntity implements Serializable {
     protected Category category;
     protected BigDecimal width, height, length, productionCost, sellingPrice;
     protected Discount discount;
+    private transient List<ItemChangeListener> changeListeners;
 
     /**
      * Constructs a new Item with the specified name, category, dimensions, cost, selling price, and discount percentage.
@@ -51,6 +54,7 @@ public class Item extends NamedEntity implements Serializable {
 
     public void setWidth(BigDecimal width) {
         this.width = width;
+        fireItemChanged();
     }
 
     public BigDecimal getHeight() {
@@ -59,6 +63,7 @@ public class Item extends NamedEntity implements Serializable {
 
     public void setHeight(BigDecimal height) {
         this.height = height;
+        fireItemChanged();
     }
 
     public BigDecimal getLength() {
@@ -67,6 +72,7 @@ public class Item extends NamedEntity implements Serializable {
 
     public void setLength(BigDecimal length) {
         this.length = length;
+        fireItemChanged();
     }
 
     public BigDecimal getProductionCost() {
@@ -83,6 +89,7 @@ public class Item extends NamedEntity implements Serializable {
 
     public void setSellingPrice(BigDecimal sellingPrice) {
         this.sellingPrice = sellingPrice;
+        fireItemChanged();
     }
 
     public Discount getDiscount() {
@@ -91,6 +98,40 @@ public class Item extends NamedEntity implements Serializable {
 
     public void setDiscount(Discount discount) {
         this.discount = discount;
+        fireItemChanged();
+    }
+
+    /**
+     * Registers a listener that is notified whenever a value the derived figures of this item depend on changes.
+     *
+     * @param listener The listener to register.
+     */
+    public void addChangeListener(ItemChangeListener listener) {
+        if (changeListeners == null) {
+            changeListeners = new CopyOnWriteArrayList<>();
+        }
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered change listener.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeChangeListener(ItemChangeListener listener) {
+        if (changeListeners != null) {
+            changeListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Notifies all registered listeners that a value of this item has changed.
+     * Subclasses call this from setters of values that influence their calculations.
+     */
+    protected void fireItemChanged() {
+        if (changeListeners != null) {
+            changeListeners.forEach(listener -> listener.itemChanged(this));
+        }
     }
 
 
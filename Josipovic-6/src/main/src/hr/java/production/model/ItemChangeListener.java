@@ -0,0 +1,18 @@
+package hr.java.production.model;
+
+/**
+ * Receives notifications when a value of an {@link Item} that derived figures depend on has changed.
+ * <p>
+ * Listeners are registered with {@link Item#addChangeListener(ItemChangeListener)} and are notified
+ * after the new value has been set, so the item can be queried for its current state.
+ * Listeners are not serialized together with the item.
+ */
+@FunctionalInterface
+public interface ItemChangeListener {
+    /**
+     * Called after a price, discount, dimension, weight or warranty of the item has been changed.
+     *
+     * @param item The item whose value has changed.
+     */
+    void itemChanged(Item item);
+}
@@ -15,4 +15,18 @@ import java.util.Set;
 public interface ItemContainer {
     Set<Item> getItems();
     String getName();
+
+    /**
+     * Registers a listener that is notified whenever items are added to this container or its items are replaced.
+     *
+     * @param listener The listener to register.
+     */
+    void addContainerListener(ItemContainerListener listener);
+
+    /**
+     * Removes a previously registered container listener.
+     *
+     * @param listener The listener to remove.
+     */
+    void removeContainerListener(ItemContainerListener listener);
 }
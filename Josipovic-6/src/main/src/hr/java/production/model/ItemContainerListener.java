@@ -0,0 +1,28 @@
+package hr.java.production.model;
+
+import java.util.Set;
+
+/**
+ * Receives notifications when the items of an {@link ItemContainer} change.
+ * <p>
+ * Listeners are registered with {@link ItemContainer#addContainerListener(ItemContainerListener)}
+ * and are not serialized together with the container.
+ */
+public interface ItemContainerListener {
+    /**
+     * Called after a single item has been added to the container.
+     *
+     * @param container The container the item was added to.
+     * @param item      The added item.
+     */
+    void itemAdded(ItemContainer container, Item item);
+
+    /**
+     * Called after the whole item set of the container has been replaced.
+     *
+     * @param container The container whose items were replaced.
+     * @param oldItems  The previous items of the container.
+     * @param newItems  The current items of the container.
+     */
+    void itemsReplaced(ItemContainer container, Set<Item> oldItems, Set<Item> newItems);
+}
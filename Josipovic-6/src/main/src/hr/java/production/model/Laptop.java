@@ -34,6 +34,7 @@ public final class Laptop extends Item implements Technical {
 
     public void setWarrantyYears(Integer warrantyYears) {
         this.warrantyYears = warrantyYears;
+        fireItemChanged();
     }
 
     /**
@@ -36,6 +36,7 @@ public class Pizza extends Item implements Edible {
 
     public void setWeightInKG(BigDecimal weightInKG) {
         this.weightInKG = weightInKG;
+        fireItemChanged();
     }
 
     /**
@@ -1,8 +1,10 @@
 package hr.java.production.model;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a store in the production model.
@@ -11,6 +13,7 @@ import java.util.Set;
 public class Store extends NamedEntity implements Serializable, ItemContainer {
     private String webAddress;
     private Set<Item> items;
+    private transient List<ItemContainerListener> containerListeners;
 
     /**
      * Constructs a new Store with the specified name, web address, and items.
@@ -38,7 +41,38 @@ public class Store extends NamedEntity implements Serializable, ItemContainer {
     }
 
     public void setItems(Set<Item> items) {
+        Set<Item> oldItems = this.items;
         this.items = items;
+        if (containerListeners != null) {
+            containerListeners.forEach(listener -> listener.itemsReplaced(this, oldItems, items));
+        }
+    }
+
+    @Override
+    public void addContainerListener(ItemContainerListener listener) {
+        if (containerListeners == null) {
+            containerListeners = new CopyOnWriteArrayList<>();
+        }
+        containerListeners.add(listener);
+    }
+
+    @Override
+    public void removeContainerListener(ItemContainerListener listener) {
+        if (containerListeners != null) {
+            containerListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Notifies all registered container listeners that an item has been added to this store.
+     * Subclasses call this when they add an item to one of their own item lists.
+     *
+     * @param item The added item.
+     */
+    protected void fireItemAdded(Item item) {
+        if (containerListeners != null) {
+            containerListeners.forEach(listener -> listener.itemAdded(this, item));
+        }
     }
 
     @Override
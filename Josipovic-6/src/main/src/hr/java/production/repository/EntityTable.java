@@ -0,0 +1,222 @@
+package hr.java.production.repository;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The entities of one type in an {@link InventorySnapshot}, by ID and as a list in the order they were first added.
+ * <p>
+ * The entities are kept in chunks of up to {@value #CHUNK_SIZE}, in insertion order, and every ID is mapped to the
+ * chunk that holds it in one of a number of hash buckets, each a small map. A table is never changed once it is
+ * built. A {@link Builder} shares the chunks and buckets of the table it starts from and copies each one the first
+ * time it changes it, so a version that changes one entity copies one chunk, one bucket and the arrays of their
+ * references, not every entity of the type.
+ * <p>
+ * A replaced entity keeps its position; a removed one leaves a shorter chunk behind, and an added one is appended.
+ *
+ * @param <T> The type of the entities.
+ */
+final class EntityTable<T> {
+    static final int CHUNK_SIZE = 256;
+    private static final int MIN_BUCKET_COUNT = 16;
+    private static final int BUCKET_SIZE = 256;
+
+    private final Function<T, Long> idOf;
+    private final List<List<T>> chunks;
+    private final List<Map<Long, Integer>> buckets;
+    private final int size;
+    private final int[] chunkOffsets;
+    private final List<T> list = new ListView();
+
+    private EntityTable(Function<T, Long> idOf, List<List<T>> chunks, List<Map<Long, Integer>> buckets, int size) {
+        this.idOf = idOf;
+        this.chunks = chunks;
+        this.buckets = buckets;
+        this.size = size;
+        this.chunkOffsets = new int[chunks.size()];
+        int offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            chunkOffsets[i] = offset;
+            offset += chunks.get(i).size();
+        }
+    }
+
+    /**
+     * Creates a table without entities.
+     *
+     * @param idOf Returns the ID of an entity.
+     */
+    static <T> EntityTable<T> empty(Function<T, Long> idOf) {
+        return new EntityTable<>(idOf, List.of(), Collections.nCopies(MIN_BUCKET_COUNT, Map.of()), 0);
+    }
+
+    T get(Long id) {
+        return find(chunks, buckets, id);
+    }
+
+    /**
+     * Returns the entities in insertion order as an unmodifiable list.
+     */
+    List<T> list() {
+        return list;
+    }
+
+    Builder<T> toBuilder() {
+        return new Builder<>(this);
+    }
+
+    private T find(List<List<T>> chunks, List<Map<Long, Integer>> buckets, Long id) {
+        Integer chunkIndex = buckets.get(bucketIndex(id, buckets.size())).get(id);
+        if (chunkIndex == null) {
+            return null;
+        }
+        List<T> chunk = chunks.get(chunkIndex);
+        return chunk.get(positionIn(chunk, id));
+    }
+
+    private int positionIn(List<T> chunk, Long id) {
+        for (int i = 0; i < chunk.size(); i++) {
+            if (idOf.apply(chunk.get(i)).equals(id)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("The entity with ID " + id + " is not in the chunk it is mapped to.");
+    }
+
+    private static int bucketIndex(Long id, int bucketCount) {
+        int hash = id.hashCode() * 0x9E3779B9;
+        return (hash ^ hash >>> 16) & (bucketCount - 1);
+    }
+
+    /**
+     * The changes to a table, made in place on the chunks and buckets the builder has already copied.
+     * A builder must not be used after {@link #build()}.
+     */
+    static final class Builder<T> {
+        private final EntityTable<T> base;
+        private final List<List<T>> chunks;
+        private final List<Map<Long, Integer>> buckets;
+        private final BitSet copiedChunks = new BitSet();
+        private final BitSet copiedBuckets = new BitSet();
+        private int size;
+
+        private Builder(EntityTable<T> base) {
+            this.base = base;
+            this.chunks = new ArrayList<>(base.chunks);
+            this.buckets = new ArrayList<>(base.buckets);
+            this.size = base.size;
+        }
+
+        T get(Long id) {
+            return base.find(chunks, buckets, id);
+        }
+
+        /**
+         * Adds an entity, or replaces the entity with the same ID in its position.
+         *
+         * @return The replaced entity, or {@code null} if the entity was added.
+         */
+        T put(T entity) {
+            Long id = base.idOf.apply(entity);
+            int bucketIndex = bucketIndex(id, buckets.size());
+            Integer chunkIndex = buckets.get(bucketIndex).get(id);
+            if (chunkIndex != null) {
+                List<T> chunk = copiedChunk(chunkIndex);
+                return chunk.set(base.positionIn(chunk, id), entity);
+            }
+            int lastIndex = chunks.size() - 1;
+            if (lastIndex < 0 || chunks.get(lastIndex).size() >= CHUNK_SIZE) {
+                chunks.add(new ArrayList<>(CHUNK_SIZE));
+                lastIndex++;
+                copiedChunks.set(lastIndex);
+            }
+            copiedChunk(lastIndex).add(entity);
+            copiedBucket(bucketIndex).put(id, lastIndex);
+            size++;
+            return null;
+        }
+
+        /**
+         * Removes the entity with the given ID.
+         *
+         * @return The removed entity, or {@code null} if there was none.
+         */
+        T remove(Long id) {
+            int bucketIndex = bucketIndex(id, buckets.size());
+            Integer chunkIndex = buckets.get(bucketIndex).get(id);
+            if (chunkIndex == null) {
+                return null;
+            }
+            List<T> chunk = copiedChunk(chunkIndex);
+            copiedBucket(bucketIndex).remove(id);
+            size--;
+            return chunk.remove(base.positionIn(chunk, id));
+        }
+
+        /**
+         * Returns the new table. Once the table has grown to twice the size its buckets are meant for, the IDs are
+         * spread over more buckets, which copies every bucket but happens only each time the table doubles.
+         */
+        EntityTable<T> build() {
+            List<Map<Long, Integer>> tableBuckets = buckets;
+            if (size > 2 * BUCKET_SIZE * buckets.size()) {
+                int bucketCount = Integer.highestOneBit(size / BUCKET_SIZE - 1) << 1;
+                tableBuckets = new ArrayList<>(bucketCount);
+                for (int i = 0; i < bucketCount; i++) {
+                    tableBuckets.add(new HashMap<>());
+                }
+                for (int chunkIndex = 0; chunkIndex < chunks.size(); chunkIndex++) {
+                    for (T entity : chunks.get(chunkIndex)) {
+                        Long id = base.idOf.apply(entity);
+                        tableBuckets.get(bucketIndex(id, bucketCount)).put(id, chunkIndex);
+                    }
+                }
+            }
+            return new EntityTable<>(base.idOf, chunks, tableBuckets, size);
+        }
+
+        private List<T> copiedChunk(int chunkIndex) {
+            if (!copiedChunks.get(chunkIndex)) {
+                chunks.set(chunkIndex, new ArrayList<>(chunks.get(chunkIndex)));
+                copiedChunks.set(chunkIndex);
+            }
+            return chunks.get(chunkIndex);
+        }
+
+        private Map<Long, Integer> copiedBucket(int bucketIndex) {
+            if (!copiedBuckets.get(bucketIndex)) {
+                buckets.set(bucketIndex, new HashMap<>(buckets.get(bucketIndex)));
+                copiedBuckets.set(bucketIndex);
+            }
+            return buckets.get(bucketIndex);
+        }
+    }
+
+    /**
+     * The entities of all chunks as one list. An index is found by a binary search over the chunk offsets.
+     */
+    private final class ListView extends AbstractList<T> implements RandomAccess {
+        @Override
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            int chunkIndex = Arrays.binarySearch(chunkOffsets, index);
+            if (chunkIndex < 0) {
+                chunkIndex = -chunkIndex - 2;
+            }
+            while (index - chunkOffsets[chunkIndex] >= chunks.get(chunkIndex).size()) {
+                chunkIndex++;
+            }
+            return chunks.get(chunkIndex).get(index - chunkOffsets[chunkIndex]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return chunks.stream().flatMap(List::stream).iterator();
+        }
+    }
+}
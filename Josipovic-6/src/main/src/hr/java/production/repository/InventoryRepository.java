@@ -0,0 +1,419 @@
+package hr.java.production.repository;
+
+import hr.java.production.collection.ImmutableSortedArraySet;
+import hr.java.production.exception.IdenticalCategoryInputException;
+import hr.java.production.genericsi.FoodStore;
+import hr.java.production.genericsi.TechnicalStore;
+import hr.java.production.model.*;
+import hr.java.production.repository.InventorySnapshot.ItemHolders;
+import hr.java.production.sort.VolumeSorter;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Owns the categories, items, factories and stores, and publishes every change as a new {@link InventorySnapshot}.
+ * <p>
+ * Readers call {@link #snapshot()}, which is a single volatile read, and get a version whose lists never change, so
+ * {@code InventoryAnalyzer} queries and reports see a consistent inventory while updates are ingested.
+ * Writers describe a batch of changes in {@link #update(Consumer)}. The batch copies only the chunks of the entity
+ * tables it touches and only the factories and stores it changes, and is published at once when it completes;
+ * a batch that throws publishes nothing. Writers are serialized, readers never wait.
+ * <p>
+ * Items, factories and stores are copied when they are put into the repository, so changing the caller's
+ * instances afterwards cannot change a published snapshot. The item references of the copied factories and
+ * stores are resolved to the items in the repository. Every version indexes which factories and stores hold an
+ * item, so replacing or removing an item copies only those containers.
+ */
+public class InventoryRepository {
+    private final AtomicReference<InventorySnapshot> current = new AtomicReference<>(InventorySnapshot.EMPTY);
+
+    /**
+     * Creates a repository with the given entities as its first version.
+     *
+     * @param categories The categories.
+     * @param items      The items. Their categories do not have to be in {@code categories}.
+     * @param factories  The factories, whose items must be in {@code items}.
+     * @param stores     The stores, whose items must be in {@code items}.
+     * @return A new repository at version 1.
+     */
+    public static InventoryRepository of(Collection<Category> categories, Collection<Item> items,
+                                         Collection<Factory> factories, Collection<Store> stores) {
+        InventoryRepository repository = new InventoryRepository();
+        repository.update(update -> {
+            categories.forEach(update::addCategory);
+            items.forEach(update::putItem);
+            factories.forEach(update::putFactory);
+            stores.forEach(update::putStore);
+        });
+        return repository;
+    }
+
+    /**
+     * Returns the latest published version without locking.
+     *
+     * @return The current snapshot.
+     */
+    public InventorySnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Applies a batch of changes and publishes the result as the next version.
+     *
+     * @param changes The changes, made through the given {@code Update}, which is only valid during the call.
+     * @return The published snapshot, or the current one if the batch changed nothing.
+     */
+    public synchronized InventorySnapshot update(Consumer<Update> changes) {
+        InventorySnapshot base = current.get();
+        Update update = new Update(base);
+        changes.accept(update);
+        update.closed = true;
+        if (!update.isChanged()) {
+            return base;
+        }
+        InventorySnapshot next = update.build(base.getVersion() + 1);
+        current.set(next);
+        return next;
+    }
+
+    /**
+     * A batch of changes to the version it was started from. Entities are matched by ID.
+     */
+    public static final class Update {
+        private final InventorySnapshot base;
+        private EntityTable.Builder<Category> categories;
+        private EntityTable.Builder<Item> items;
+        private EntityTable.Builder<Factory> factories;
+        private EntityTable.Builder<Store> stores;
+        private EntityTable.Builder<ItemHolders> holders;
+        private boolean closed;
+
+        private Update(InventorySnapshot base) {
+            this.base = base;
+        }
+
+        /**
+         * Adds a category. Categories cannot be replaced, since the items refer to them.
+         *
+         * @param category The category to add.
+         * @throws IdenticalCategoryInputException If there is already a category with the same ID.
+         */
+        public void addCategory(Category category) {
+            if (currentCategory(category.getId()) != null) {
+                throw new IdenticalCategoryInputException("A category with ID " + category.getId() + " already exists.");
+            }
+            categories().put(category);
+        }
+
+        /**
+         * Adds a copy of an item, or replaces the item with the same ID everywhere it is referenced,
+         * which publishes a copy of every factory and store that holds it.
+         *
+         * @param item The new item.
+         */
+        public void putItem(Item item) {
+            Item itemCopy = copyOf(item);
+            if (items().put(itemCopy) != null) {
+                replaceInContainers(itemCopy.getId(), containerItems -> {
+                    containerItems.removeIf(containerItem -> containerItem.getId().equals(itemCopy.getId()));
+                    containerItems.add(itemCopy);
+                });
+            }
+        }
+
+        /**
+         * Removes an item from the catalog and from every factory and store that holds it.
+         *
+         * @param itemId The ID of the item.
+         * @return Whether an item was removed.
+         */
+        public boolean removeItem(Long itemId) {
+            if (currentItem(itemId) == null) {
+                return false;
+            }
+            items().remove(itemId);
+            replaceInContainers(itemId, containerItems -> containerItems.removeIf(item -> item.getId().equals(itemId)));
+            return true;
+        }
+
+        /**
+         * Adds a copy of a factory, or replaces the factory with the same ID.
+         *
+         * @param factory The factory, whose items must be in the repository.
+         */
+        public void putFactory(Factory factory) {
+            publishFactory(copyOf(factory, resolve(factory.getItems())));
+        }
+
+        public boolean removeFactory(Long factoryId) {
+            if (currentFactory(factoryId) == null) {
+                return false;
+            }
+            Factory removed = factories().remove(factoryId);
+            indexHolders(factoryId, removed.getItems(), Set.of(), ItemHolders::withFactory);
+            return true;
+        }
+
+        /**
+         * Adds a copy of a store, or replaces the store with the same ID.
+         *
+         * @param store The store, whose items must be in the repository.
+         */
+        public void putStore(Store store) {
+            publishStore(copyOf(store, resolve(store.getItems())));
+        }
+
+        public boolean removeStore(Long storeId) {
+            if (currentStore(storeId) == null) {
+                return false;
+            }
+            Store removed = stores().remove(storeId);
+            indexHolders(storeId, removed.getItems(), Set.of(), ItemHolders::withStore);
+            return true;
+        }
+
+        /**
+         * Publishes a copy of a factory with one more item.
+         *
+         * @param factoryId The ID of the factory.
+         * @param itemId    The ID of the item.
+         * @throws IllegalArgumentException If there is no such factory or item.
+         */
+        public void addItemToFactory(Long factoryId, Long itemId) {
+            Factory factory = require(currentFactory(factoryId), factoryId, "factory");
+            List<Item> factoryItems = new ArrayList<>(factory.getItems());
+            factoryItems.add(require(currentItem(itemId), itemId, "item"));
+            publishFactory(copyOf(factory, factoryItems));
+        }
+
+        /**
+         * Publishes a copy of a store with one more item.
+         *
+         * @param storeId The ID of the store.
+         * @param itemId  The ID of the item.
+         * @throws IllegalArgumentException If there is no such store or item.
+         */
+        public void addItemToStore(Long storeId, Long itemId) {
+            Store store = require(currentStore(storeId), storeId, "store");
+            List<Item> storeItems = new ArrayList<>(store.getItems());
+            storeItems.add(require(currentItem(itemId), itemId, "item"));
+            publishStore(copyOf(store, storeItems));
+        }
+
+        /**
+         * Publishes a changed copy of every factory and store that holds the item, as found in the holder index.
+         */
+        private void replaceInContainers(Long itemId, Consumer<List<Item>> change) {
+            ItemHolders itemHolders = currentHolders(itemId);
+            if (itemHolders == null) {
+                return;
+            }
+            for (Long factoryId : itemHolders.factoryIds()) {
+                Factory factory = currentFactory(factoryId);
+                List<Item> factoryItems = new ArrayList<>(factory.getItems());
+                change.accept(factoryItems);
+                publishFactory(copyOf(factory, factoryItems));
+            }
+            for (Long storeId : itemHolders.storeIds()) {
+                Store store = currentStore(storeId);
+                List<Item> storeItems = new ArrayList<>(store.getItems());
+                change.accept(storeItems);
+                publishStore(copyOf(store, storeItems));
+            }
+        }
+
+        private void publishFactory(Factory factory) {
+            Factory replaced = factories().put(factory);
+            indexHolders(factory.getId(), replaced == null ? Set.of() : replaced.getItems(), factory.getItems(),
+                    ItemHolders::withFactory);
+        }
+
+        private void publishStore(Store store) {
+            Store replaced = stores().put(store);
+            indexHolders(store.getId(), replaced == null ? Set.of() : replaced.getItems(), store.getItems(),
+                    ItemHolders::withStore);
+        }
+
+        /**
+         * Updates the holder index for a container whose items changed from {@code before} to {@code after}.
+         * Only the items that were added or removed are touched.
+         */
+        private void indexHolders(Long containerId, Set<Item> before, Set<Item> after, HolderChange holderChange) {
+            Set<Long> beforeIds = new HashSet<>();
+            before.forEach(item -> beforeIds.add(item.getId()));
+            Set<Long> afterIds = new HashSet<>();
+            after.forEach(item -> afterIds.add(item.getId()));
+            for (Long itemId : beforeIds) {
+                if (!afterIds.contains(itemId)) {
+                    ItemHolders itemHolders = holderChange.apply(currentHolders(itemId), containerId, false);
+                    if (itemHolders.isEmpty()) {
+                        holders().remove(itemId);
+                    } else {
+                        holders().put(itemHolders);
+                    }
+                }
+            }
+            for (Long itemId : afterIds) {
+                if (!beforeIds.contains(itemId)) {
+                    ItemHolders itemHolders = currentHolders(itemId);
+                    if (itemHolders == null) {
+                        itemHolders = new ItemHolders(itemId, Set.of(), Set.of());
+                    }
+                    holders().put(holderChange.apply(itemHolders, containerId, true));
+                }
+            }
+        }
+
+        /**
+         * Adds or removes a factory or store in the holders of an item.
+         */
+        @FunctionalInterface
+        private interface HolderChange {
+            ItemHolders apply(ItemHolders itemHolders, Long containerId, boolean held);
+        }
+
+        /**
+         * Replaces the given items with the repository's items of the same IDs.
+         */
+        private List<Item> resolve(Collection<Item> containerItems) {
+            List<Item> resolved = new ArrayList<>(containerItems.size());
+            for (Item item : containerItems) {
+                resolved.add(require(currentItem(item.getId()), item.getId(), "item"));
+            }
+            return resolved;
+        }
+
+        private static <T> T require(T entity, Long id, String type) {
+            if (entity == null) {
+                throw new IllegalArgumentException("There is no " + type + " with ID " + id + " in the repository.");
+            }
+            return entity;
+        }
+
+        /**
+         * Copies an item without its change listeners, like {@code ItemBinaryCodec} reads one.
+         */
+        private static Item copyOf(Item item) {
+            if (item.getClass() == Pizza.class) {
+                return new Pizza(item.getId(), item.getName(), item.getCategory(), item.getWidth(), item.getHeight(), item.getLength(),
+                        item.getProductionCost(), item.getSellingPrice(), item.getDiscount(), ((Pizza) item).getWeightInKG());
+            } else if (item.getClass() == ChickenNuggets.class) {
+                return new ChickenNuggets(item.getId(), item.getName(), item.getCategory(), item.getWidth(), item.getHeight(), item.getLength(),
+                        item.getProductionCost(), item.getSellingPrice(), item.getDiscount(), ((ChickenNuggets) item).getWeightInKG());
+            } else if (item.getClass() == Laptop.class) {
+                return new Laptop(item.getId(), item.getName(), item.getCategory(), item.getWidth(), item.getHeight(), item.getLength(),
+                        item.getProductionCost(), item.getSellingPrice(), item.getDiscount(), ((Laptop) item).getWarrantyYears());
+            } else if (item.getClass() == Item.class) {
+                return new Item(item.getId(), item.getName(), item.getCategory(), item.getWidth(), item.getHeight(), item.getLength(),
+                        item.getProductionCost(), item.getSellingPrice(), item.getDiscount());
+            }
+            throw new IllegalArgumentException("Items of type " + item.getClass().getName() + " cannot be copied.");
+        }
+
+        private static Factory copyOf(Factory factory, Collection<Item> factoryItems) {
+            return new Factory(factory.getId(), factory.getName(), factory.getAddress(),
+                    Collections.unmodifiableSet(new LinkedHashSet<>(factoryItems)));
+        }
+
+        /**
+         * Copies a store with an immutable item set in the order of the original set. The typed item list
+         * of a food or technical store is rebuilt from the new set, like {@code FileUtils} builds it.
+         */
+        private static Store copyOf(Store store, Collection<Item> storeItems) {
+            Comparator<? super Item> comparator = store.getItems() instanceof SortedSet<Item> sortedItems && sortedItems.comparator() != null
+                    ? sortedItems.comparator() : new VolumeSorter();
+            ImmutableSortedArraySet<Item> itemSet = ImmutableSortedArraySet.copyOf(storeItems, comparator);
+            if (store.getClass() == FoodStore.class) {
+                List<Edible> foodStoreItems = itemSet.stream().filter(Edible.class::isInstance).map(Edible.class::cast).toList();
+                return new FoodStore<>(store.getId(), store.getName(), store.getWebAddress(), itemSet, foodStoreItems);
+            } else if (store.getClass() == TechnicalStore.class) {
+                List<Technical> technicalStoreItems = itemSet.stream().filter(Technical.class::isInstance).map(Technical.class::cast).toList();
+                return new TechnicalStore<>(store.getId(), store.getName(), store.getWebAddress(), itemSet, technicalStoreItems);
+            } else if (store.getClass() == Store.class) {
+                return new Store(store.getId(), store.getName(), store.getWebAddress(), itemSet);
+            }
+            throw new IllegalArgumentException("Stores of type " + store.getClass().getName() + " cannot be copied.");
+        }
+
+        private boolean isChanged() {
+            return categories != null || items != null || factories != null || stores != null;
+        }
+
+        private InventorySnapshot build(long version) {
+            return new InventorySnapshot(version,
+                    categories == null ? base.categoryTable() : categories.build(),
+                    items == null ? base.itemTable() : items.build(),
+                    factories == null ? base.factoryTable() : factories.build(),
+                    stores == null ? base.storeTable() : stores.build(),
+                    holders == null ? base.holderTable() : holders.build());
+        }
+
+        private Category currentCategory(Long id) {
+            return categories == null ? base.categoryTable().get(id) : categories.get(id);
+        }
+
+        private Item currentItem(Long id) {
+            return items == null ? base.itemTable().get(id) : items.get(id);
+        }
+
+        private Factory currentFactory(Long id) {
+            return factories == null ? base.factoryTable().get(id) : factories.get(id);
+        }
+
+        private Store currentStore(Long id) {
+            return stores == null ? base.storeTable().get(id) : stores.get(id);
+        }
+
+        private ItemHolders currentHolders(Long itemId) {
+            return holders == null ? base.holderTable().get(itemId) : holders.get(itemId);
+        }
+
+        private EntityTable.Builder<Category> categories() {
+            checkOpen();
+            if (categories == null) {
+                categories = base.categoryTable().toBuilder();
+            }
+            return categories;
+        }
+
+        private EntityTable.Builder<Item> items() {
+            checkOpen();
+            if (items == null) {
+                items = base.itemTable().toBuilder();
+            }
+            return items;
+        }
+
+        private EntityTable.Builder<Factory> factories() {
+            checkOpen();
+            if (factories == null) {
+                factories = base.factoryTable().toBuilder();
+            }
+            return factories;
+        }
+
+        private EntityTable.Builder<Store> stores() {
+            checkOpen();
+            if (stores == null) {
+                stores = base.storeTable().toBuilder();
+            }
+            return stores;
+        }
+
+        private EntityTable.Builder<ItemHolders> holders() {
+            checkOpen();
+            if (holders == null) {
+                holders = base.holderTable().toBuilder();
+            }
+            return holders;
+        }
+
+        private void checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("The update has already been published.");
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package hr.java.production.repository;
+
+import hr.java.production.model.Category;
+import hr.java.production.model.Factory;
+import hr.java.production.model.Item;
+import hr.java.production.model.Store;
+
+import java.util.*;
+
+/**
+ * One version of the inventory published by {@link InventoryRepository}.
+ * <p>
+ * The lists keep the order in which the entities were first added, and can be passed directly to
+ * {@code InventoryAnalyzer} and {@code InventoryReportPrinter}. The lists of a version never change, and the item
+ * sets of the factories and stores in them, as well as the typed item lists of food and technical stores, are
+ * unmodifiable copies. The entities themselves are read-only only by convention: their setters still work, and
+ * calling one would change every version that holds the entity. A changed entity must be published as a new
+ * instance through {@link InventoryRepository#update} instead.
+ * <p>
+ * A version shares the tables of every entity type that did not change with the version before it, and the
+ * unchanged chunks of the tables that did.
+ */
+public final class InventorySnapshot {
+    static final InventorySnapshot EMPTY = new InventorySnapshot(0, EntityTable.empty(Category::getId),
+            EntityTable.empty(Item::getId), EntityTable.empty(Factory::getId), EntityTable.empty(Store::getId),
+            EntityTable.empty(ItemHolders::itemId));
+
+    private final long version;
+    private final EntityTable<Category> categories;
+    private final EntityTable<Item> items;
+    private final EntityTable<Factory> factories;
+    private final EntityTable<Store> stores;
+    private final EntityTable<ItemHolders> holders;
+
+    /**
+     * The IDs of the factories and stores that hold an item. Only items held by at least one are in the index.
+     */
+    record ItemHolders(Long itemId, Set<Long> factoryIds, Set<Long> storeIds) {
+        ItemHolders withFactory(Long factoryId, boolean held) {
+            return new ItemHolders(itemId, with(factoryIds, factoryId, held), storeIds);
+        }
+
+        ItemHolders withStore(Long storeId, boolean held) {
+            return new ItemHolders(itemId, factoryIds, with(storeIds, storeId, held));
+        }
+
+        boolean isEmpty() {
+            return factoryIds.isEmpty() && storeIds.isEmpty();
+        }
+
+        private static Set<Long> with(Set<Long> ids, Long id, boolean present) {
+            Set<Long> changed = new LinkedHashSet<>(ids);
+            if (present) {
+                changed.add(id);
+            } else {
+                changed.remove(id);
+            }
+            return Collections.unmodifiableSet(changed);
+        }
+    }
+
+    InventorySnapshot(long version, EntityTable<Category> categories, EntityTable<Item> items,
+                      EntityTable<Factory> factories, EntityTable<Store> stores, EntityTable<ItemHolders> holders) {
+        this.version = version;
+        this.categories = categories;
+        this.items = items;
+        this.factories = factories;
+        this.stores = stores;
+        this.holders = holders;
+    }
+
+    /**
+     * Returns the number of updates published before this version. The empty repository is version 0.
+     *
+     * @return The version number.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Category> getCategories() {
+        return categories.list();
+    }
+
+    public List<Item> getItems() {
+        return items.list();
+    }
+
+    public List<Factory> getFactories() {
+        return factories.list();
+    }
+
+    public List<Store> getStores() {
+        return stores.list();
+    }
+
+    public Optional<Category> findCategory(Long id) {
+        return Optional.ofNullable(categories.get(id));
+    }
+
+    public Optional<Item> findItem(Long id) {
+        return Optional.ofNullable(items.get(id));
+    }
+
+    public Optional<Factory> findFactory(Long id) {
+        return Optional.ofNullable(factories.get(id));
+    }
+
+    public Optional<Store> findStore(Long id) {
+        return Optional.ofNullable(stores.get(id));
+    }
+
+    EntityTable<Category> categoryTable() {
+        return categories;
+    }
+
+    EntityTable<Item> itemTable() {
+        return items;
+    }
+
+    EntityTable<Factory> factoryTable() {
+        return factories;
+    }
+
+    EntityTable<Store> storeTable() {
+        return stores;
+    }
+
+    EntityTable<ItemHolders> holderTable() {
+        return holders;
+    }
+}
@@ -0,0 +1,373 @@
+package hr.java.production.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hr.java.production.enumeration.ExportFormat;
+import hr.java.production.export.InventoryExporter;
+import hr.java.production.metrics.MetricsRegistry;
+import hr.java.production.model.*;
+import hr.java.production.repository.InventoryRepository;
+import hr.java.production.repository.InventorySnapshot;
+import hr.java.production.utility.FileUtils;
+import hr.java.production.utility.InventoryAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Serves the {@link InventoryAnalyzer} queries, entity lookups and reports as JSON over HTTP on the loopback interface.
+ * <p>
+ * The server is built on the JDK's {@code com.sun.net.httpserver} and handles every request on its own virtual
+ * thread. Every request reads the current {@link InventorySnapshot} of an {@link InventoryRepository} without
+ * locking. The inventory only changes when a new snapshot is published, so successful responses are rendered once
+ * per snapshot and then served from memory. The cache is only replaced by one for a newer snapshot, so a request
+ * that read an older snapshot while an update was published renders its response without caching it.
+ * <p>
+ * Endpoints, all {@code GET}:
+ * <ul>
+ *     <li>{@code /categories}, {@code /items}, {@code /factories}, {@code /stores} and {@code /<type>/<id>}: the entities,</li>
+ *     <li>{@code /analyzer/<query>}: the result of an analyzer query, see {@code /} for the list,</li>
+ *     <li>{@code /reports/<report>}: an {@link InventoryExporter} report as JSON lines.</li>
+ * </ul>
+ * Run with {@code [port]}; the server loads the input files once and listens on {@value #DEFAULT_PORT} by default.
+ * <p>
+ * Small responses on a kept-alive connection should not wait for Nagle's algorithm, so {@link #main} enables
+ * {@code TCP_NODELAY} through the JDK's {@code sun.net.httpserver.nodelay} property unless it is already set. The JDK reads
+ * the property once, before the first of its HTTP servers is created, so an application that calls
+ * {@link #start} itself should pass {@code -Dsun.net.httpserver.nodelay=true}.
+ */
+public class InventoryQueryServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryQueryServer.class);
+    private static final MetricsRegistry metrics = MetricsRegistry.getDefault();
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String JSON_LINES = "application/x-ndjson; charset=utf-8";
+    private static final int BACKLOG = 1024;
+    private static final List<String> LOOKUP_PREFIXES = List.of("/categories/", "/items/", "/factories/", "/stores/");
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final InventoryRepository repository;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Function<InventorySnapshot, Response>> routes = new LinkedHashMap<>();
+    private final AtomicReference<ResponseCache> cache = new AtomicReference<>();
+
+    private record Response(int status, String contentType, byte[] body) {
+    }
+
+    private record ResponseCache(InventorySnapshot snapshot, Map<String, Response> responses) {
+    }
+
+    private InventoryQueryServer(InventoryRepository repository, int port) throws IOException {
+        this.repository = repository;
+        registerRoutes();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts a server over the given repository.
+     *
+     * @param repository The inventory to serve.
+     * @param port       The port to listen on, or 0 for any free port.
+     * @return The started server.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static InventoryQueryServer start(InventoryRepository repository, int port) throws IOException {
+        InventoryQueryServer queryServer = new InventoryQueryServer(repository, port);
+        queryServer.server.start();
+        logger.info("Inventory query server listening on http://{}:{}/", queryServer.getAddress().getHostString(), queryServer.getAddress().getPort());
+        return queryServer;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        List<Category> categories = FileUtils.inputCategories();
+        List<Item> items = FileUtils.inputItems(categories);
+        List<Factory> factories = FileUtils.inputFactories(items);
+        List<Store> stores = FileUtils.inputStores(items, true);
+
+        InventoryQueryServer queryServer = start(InventoryRepository.of(categories, items, factories, stores), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(queryServer::close));
+        System.out.println("Serving " + items.size() + " items on http://" + queryServer.getAddress().getHostString() + ":" + queryServer.getAddress().getPort() + "/");
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops accepting requests, lets the requests in progress finish for up to a second and stops the executor.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    private void registerRoutes() {
+        routes.put("/categories", snapshot -> entities(snapshot.getCategories()));
+        routes.put("/items", snapshot -> entities(snapshot.getItems()));
+        routes.put("/factories", snapshot -> entities(snapshot.getFactories()));
+        routes.put("/stores", snapshot -> entities(snapshot.getStores()));
+
+        routes.put("/analyzer/average-item-price", snapshot -> value("averageItemPrice",
+                InventoryAnalyzer.calculateAverageItemPrice(snapshot.getItems())));
+        routes.put("/analyzer/average-item-volume", snapshot -> value("averageItemVolume",
+                InventoryAnalyzer.calculateAverageItemVolume(snapshot.getItems())));
+        routes.put("/analyzer/average-price-for-above-average-volume-items", snapshot -> value("averagePrice",
+                InventoryAnalyzer.calculateAveragePriceForAboveAverageVolumeItems(snapshot.getItems())));
+        routes.put("/analyzer/items-by-category", snapshot -> itemIdsPerKey(InventoryAnalyzer.mapItemsByCategory(snapshot.getItems())));
+        routes.put("/analyzer/items-by-interface-type", snapshot -> itemIdsPerKey(InventoryAnalyzer.mapItemsByInterfaceType(snapshot.getItems())));
+        routes.put("/analyzer/factory-with-largest-volume-of-an-item", snapshot -> entity(
+                InventoryAnalyzer.findFactoryWithLargestVolumeOfAnItem(snapshot.getFactories())));
+        routes.put("/analyzer/store-with-cheapest-item", snapshot -> entity(findStoreWithCheapestItem(snapshot.getStores())));
+        routes.put("/analyzer/most-caloric-food", snapshot -> entity(InventoryAnalyzer.findMostCaloricFood(snapshot.getItems())));
+        routes.put("/analyzer/highest-priced-food", snapshot -> entity(InventoryAnalyzer.findHighestPricedFood(snapshot.getItems())));
+        routes.put("/analyzer/laptop-with-shortest-warranty", snapshot -> entity(InventoryAnalyzer.findLaptopWithShortestWarranty(snapshot.getItems())));
+
+        routes.put("/reports/store-item-volumes", snapshot -> report(channel ->
+                InventoryExporter.exportContainerItemVolumes(snapshot.getStores(), ExportFormat.JSON_LINES, channel)));
+        routes.put("/reports/factory-item-volumes", snapshot -> report(channel ->
+                InventoryExporter.exportContainerItemVolumes(snapshot.getFactories(), ExportFormat.JSON_LINES, channel)));
+        routes.put("/reports/cheapest-and-priciest-items-by-category", snapshot -> report(channel ->
+                InventoryExporter.exportCheapestAndPriciestItemsByKey(InventoryAnalyzer.mapItemsByCategory(snapshot.getItems()), ExportFormat.JSON_LINES, channel)));
+        routes.put("/reports/cheapest-and-priciest-items-by-interface-type", snapshot -> report(channel ->
+                InventoryExporter.exportCheapestAndPriciestItemsByKey(InventoryAnalyzer.mapItemsByInterfaceType(snapshot.getItems()), ExportFormat.JSON_LINES, channel)));
+        routes.put("/reports/discounted-items", snapshot -> report(channel ->
+                InventoryExporter.exportDiscountedItems(snapshot.getItems(), ExportFormat.JSON_LINES, channel)));
+
+        routes.put("/", snapshot -> {
+            JsonWriter json = new JsonWriter().beginObject().name("endpoints").beginArray();
+            routes.keySet().forEach(json::value);
+            LOOKUP_PREFIXES.forEach(prefix -> json.value(prefix + "{id}"));
+            return ok(JSON, json.endArray().endObject().toBytes());
+        });
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long startNanos = System.nanoTime();
+        try (exchange) {
+            Response response;
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                response = error(405, "Method " + method + " is not allowed.");
+            } else {
+                response = respond(exchange.getRequestURI().getPath());
+            }
+            send(exchange, response, method.equals("HEAD"));
+            metrics.counter("server.responses." + response.status()).increment();
+        } finally {
+            metrics.histogram("server.request").recordSince(startNanos);
+        }
+    }
+
+    private Response respond(String path) {
+        InventorySnapshot snapshot = repository.snapshot();
+        ResponseCache current = cacheFor(snapshot);
+        Response response = current.responses().get(path);
+        if (response != null) {
+            return response;
+        }
+        try {
+            response = route(snapshot, path);
+        } catch (RuntimeException e) {
+            String msg = "Request for " + path + " failed.";
+            logger.error(msg, e);
+            return error(500, msg);
+        }
+        // Only successful responses are cached, so unknown paths cannot grow the cache.
+        if (response.status() == 200) {
+            current.responses().putIfAbsent(path, response);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the cache for a snapshot. The shared cache is only replaced by one for a newer version, so a request
+     * that read an older snapshot gets an empty cache of its own, which is dropped with the request.
+     */
+    private ResponseCache cacheFor(InventorySnapshot snapshot) {
+        while (true) {
+            ResponseCache current = cache.get();
+            if (current != null && current.snapshot() == snapshot) {
+                return current;
+            }
+            ResponseCache next = new ResponseCache(snapshot, new ConcurrentHashMap<>());
+            if (current != null && current.snapshot().getVersion() >= snapshot.getVersion()) {
+                return next;
+            }
+            if (cache.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private Response route(InventorySnapshot snapshot, String path) {
+        Function<InventorySnapshot, Response> route = routes.get(path);
+        if (route != null) {
+            return route.apply(snapshot);
+        }
+        int idStart = path.lastIndexOf('/') + 1;
+        String prefix = path.substring(0, idStart);
+        if (!LOOKUP_PREFIXES.contains(prefix)) {
+            return error(404, "There is no endpoint " + path + ".");
+        }
+        Long id;
+        try {
+            id = Long.parseLong(path.substring(idStart));
+        } catch (NumberFormatException e) {
+            return error(400, "'" + path.substring(idStart) + "' is not an ID.");
+        }
+        Optional<? extends NamedEntity> entity = switch (prefix) {
+            case "/categories/" -> snapshot.findCategory(id);
+            case "/items/" -> snapshot.findItem(id);
+            case "/factories/" -> snapshot.findFactory(id);
+            default -> snapshot.findStore(id);
+        };
+        return entity.map(InventoryQueryServer::entity).orElseGet(() -> error(404, "There is no entity with ID " + id + " at " + prefix + "."));
+    }
+
+    private static void send(HttpExchange exchange, Response response, boolean headOnly) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", response.contentType());
+        if (headOnly) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        exchange.sendResponseHeaders(response.status(), response.body().length == 0 ? -1 : response.body().length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(response.body());
+        }
+    }
+
+    private static Response ok(String contentType, byte[] body) {
+        return new Response(200, contentType, body);
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, JSON, new JsonWriter().beginObject().member("error", message).endObject().toBytes());
+    }
+
+    private static Response value(String name, Number value) {
+        return ok(JSON, new JsonWriter().beginObject().member(name, value).endObject().toBytes());
+    }
+
+    private static Response entity(NamedEntity entity) {
+        JsonWriter json = new JsonWriter();
+        writeEntity(json, entity);
+        return ok(JSON, json.toBytes());
+    }
+
+    private static Response entities(List<? extends NamedEntity> entities) {
+        JsonWriter json = new JsonWriter().beginArray();
+        entities.forEach(entity -> writeEntity(json, entity));
+        return ok(JSON, json.endArray().toBytes());
+    }
+
+    private static Response itemIdsPerKey(Map<?, List<Item>> itemsPerKey) {
+        JsonWriter json = new JsonWriter().beginObject();
+        itemsPerKey.forEach((key, keyItems) -> {
+            json.name(key instanceof Category category ? category.getName() : key.toString()).beginArray();
+            keyItems.forEach(item -> json.value(item.getId()));
+            json.endArray();
+        });
+        return ok(JSON, json.endObject().toBytes());
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long write(WritableByteChannel channel) throws IOException;
+    }
+
+    private static Response report(Export export) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            export.write(Channels.newChannel(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ok(JSON_LINES, body.toByteArray());
+    }
+
+    /**
+     * Keeps serving the deprecated query, whose pricing of edible items is documented in {@link InventoryAnalyzer}.
+     */
+    @SuppressWarnings("deprecation")
+    private static Store findStoreWithCheapestItem(List<Store> stores) {
+        return InventoryAnalyzer.findStoreWithCheapestItem(stores);
+    }
+
+    private static void writeEntity(JsonWriter json, NamedEntity entity) {
+        if (entity == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginObject().member("id", entity.getId()).member("name", entity.getName())
+                .member("type", entity.getClass().getSimpleName());
+        switch (entity) {
+            case Item item -> writeItemFields(json, item);
+            case Category category -> json.member("description", category.getDescription());
+            case Factory factory -> {
+                Address address = factory.getAddress();
+                json.name("address");
+                if (address == null) {
+                    json.nullValue();
+                } else {
+                    json.beginObject().member("street", address.getStreet()).member("houseNumber", address.getHouseNumber())
+                            .member("city", address.getCityName()).member("postalCode", address.getCityPostalCode()).endObject();
+                }
+                writeItemIds(json, factory.getItems());
+            }
+            case Store store -> {
+                json.member("webAddress", store.getWebAddress());
+                writeItemIds(json, store.getItems());
+            }
+            default -> {
+            }
+        }
+        json.endObject();
+    }
+
+    private static void writeItemFields(JsonWriter json, Item item) {
+        json.member("category", item.getCategory() == null ? null : item.getCategory().getName())
+                .member("width", item.getWidth()).member("height", item.getHeight()).member("length", item.getLength())
+                .member("volume", item.calculateVolume())
+                .member("productionCost", item.getProductionCost()).member("sellingPrice", item.getSellingPrice())
+                .member("discount", item.getDiscount() == null ? null : item.getDiscount().discountAmount())
+                .member("discountedSellingPrice", item.getDiscountedSellingPrice());
+        if (item instanceof Edible edible) {
+            json.member("kilocalories", edible.calculateKilocalories()).member("price", edible.calculatePrice());
+        }
+        if (item instanceof Technical technical) {
+            json.member("remainingWarrantyInMonths", technical.getRemainingWarrantyInMonths());
+        }
+    }
+
+    private static void writeItemIds(JsonWriter json, Collection<Item> items) {
+        json.name("items").beginArray();
+        if (items != null) {
+            items.forEach(item -> json.value(item.getId()));
+        }
+        json.endArray();
+    }
+}
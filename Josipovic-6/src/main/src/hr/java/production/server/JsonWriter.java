@@ -0,0 +1,110 @@
+package hr.java.production.server;
+
+import hr.java.production.export.JsonStrings;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Builds a JSON document in memory, inserting the commas between values and members.
+ * Numbers are written with {@code BigDecimal.toPlainString()}, so prices keep their scale.
+ */
+class JsonWriter {
+    private final StringBuilder json = new StringBuilder(256);
+    private final Deque<Boolean> firstInScope = new ArrayDeque<>();
+    private boolean afterName;
+
+    JsonWriter beginObject() {
+        beforeValue();
+        json.append('{');
+        firstInScope.push(true);
+        return this;
+    }
+
+    JsonWriter endObject() {
+        firstInScope.pop();
+        json.append('}');
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        beforeValue();
+        json.append('[');
+        firstInScope.push(true);
+        return this;
+    }
+
+    JsonWriter endArray() {
+        firstInScope.pop();
+        json.append(']');
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        beforeValue();
+        JsonStrings.appendQuoted(name, json);
+        json.append(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            json.append("null");
+        } else {
+            JsonStrings.appendQuoted(value, json);
+        }
+        return this;
+    }
+
+    JsonWriter value(Number value) {
+        beforeValue();
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof BigDecimal decimal) {
+            json.append(decimal.toPlainString());
+        } else {
+            json.append(value);
+        }
+        return this;
+    }
+
+    JsonWriter nullValue() {
+        beforeValue();
+        json.append("null");
+        return this;
+    }
+
+    JsonWriter member(String name, String value) {
+        return name(name).value(value);
+    }
+
+    JsonWriter member(String name, Number value) {
+        return name(name).value(value);
+    }
+
+    byte[] toBytes() {
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!firstInScope.isEmpty()) {
+            if (!firstInScope.pop()) {
+                json.append(',');
+            }
+            firstInScope.push(false);
+        }
+    }
+}
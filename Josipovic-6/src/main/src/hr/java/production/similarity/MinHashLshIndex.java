@@ -0,0 +1,177 @@
+package hr.java.production.similarity;
+
+import hr.java.production.model.Item;
+import hr.java.production.model.ItemContainer;
+import hr.java.production.model.ItemContainerListener;
+
+import java.util.*;
+
+/**
+ * Locality-sensitive hashing index over the MinHash signatures of factories or stores.
+ * <p>
+ * Every signature is split into bands of consecutive rows, and each band is hashed into its own bucket table.
+ * Containers with similar item sets agree on whole bands with high probability, so a query only ranks the
+ * containers sharing at least one bucket with it instead of computing the exact Jaccard similarity against
+ * every container. Signatures are updated incrementally when an item is added to a registered container
+ * and recomputed when its item set is replaced.
+ *
+ * @param <C> The type of the indexed containers.
+ */
+public class MinHashLshIndex<C extends ItemContainer> implements ItemContainerListener {
+    private final MinHasher hasher;
+    private final int bands, rowsPerBand;
+    private final List<Map<Long, List<C>>> buckets;
+    private final Map<ItemContainer, int[]> signaturePerContainer = new IdentityHashMap<>();
+    private final Map<ItemContainer, C> containers = new IdentityHashMap<>();
+
+    /**
+     * Constructs an index with 32 bands of 4 rows, which finds containers with a similarity
+     * of about 0.5 or more with high probability.
+     */
+    public MinHashLshIndex() {
+        this(32, 4, 42L);
+    }
+
+    /**
+     * Constructs an index with the given banding.
+     *
+     * @param bands       The number of bands. More bands find less similar containers.
+     * @param rowsPerBand The number of signature positions per band. More rows make buckets more selective.
+     * @param seed        The seed of the hash functions.
+     */
+    public MinHashLshIndex(int bands, int rowsPerBand, long seed) {
+        this.hasher = new MinHasher(bands * rowsPerBand, seed);
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+        this.buckets = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Adds a container to the index and starts listening to its changes.
+     *
+     * @param container The container to add.
+     */
+    public synchronized void add(C container) {
+        if (containers.containsKey(container)) {
+            return;
+        }
+        int[] signature = hasher.signatureOf(container.getItems());
+        containers.put(container, container);
+        signaturePerContainer.put(container, signature);
+        addToBuckets(container, signature);
+        container.addContainerListener(this);
+    }
+
+    public synchronized void remove(C container) {
+        int[] signature = signaturePerContainer.remove(container);
+        if (signature == null) {
+            return;
+        }
+        container.removeContainerListener(this);
+        containers.remove(container);
+        removeFromBuckets(container, signature);
+    }
+
+    @Override
+    public synchronized void itemAdded(ItemContainer container, Item item) {
+        int[] signature = signaturePerContainer.get(container);
+        if (signature == null) {
+            return;
+        }
+        int[] updated = signature.clone();
+        if (hasher.update(updated, item.getId())) {
+            replaceSignature(containers.get(container), signature, updated);
+        }
+    }
+
+    @Override
+    public synchronized void itemsReplaced(ItemContainer container, Set<Item> oldItems, Set<Item> newItems) {
+        int[] signature = signaturePerContainer.get(container);
+        if (signature != null) {
+            replaceSignature(containers.get(container), signature, hasher.signatureOf(newItems == null ? Set.of() : newItems));
+        }
+    }
+
+    /**
+     * Finds the indexed containers whose items are most similar to the items of the given container.
+     * The container itself is not part of the result.
+     *
+     * @param container The container to compare with. It does not have to be indexed.
+     * @param limit     The maximum number of containers to return.
+     * @return The candidates sharing a bucket with the container, from the most similar down.
+     */
+    public synchronized List<SimilarContainer<C>> findSimilar(ItemContainer container, int limit) {
+        int[] signature = signaturePerContainer.get(container);
+        if (signature == null) {
+            signature = hasher.signatureOf(container.getItems());
+        }
+        return findSimilar(signature, container, limit);
+    }
+
+    /**
+     * Finds the indexed containers whose items are most similar to the given items.
+     *
+     * @param items The items to compare with.
+     * @param limit The maximum number of containers to return.
+     * @return The candidates sharing a bucket with the items, from the most similar down.
+     */
+    public synchronized List<SimilarContainer<C>> findSimilar(Collection<Item> items, int limit) {
+        return findSimilar(hasher.signatureOf(items), null, limit);
+    }
+
+    public synchronized int size() {
+        return containers.size();
+    }
+
+    private List<SimilarContainer<C>> findSimilar(int[] signature, ItemContainer excluded, int limit) {
+        Set<C> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int band = 0; band < bands; band++) {
+            List<C> bucket = buckets.get(band).get(bandKey(signature, band));
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+        candidates.remove(excluded);
+
+        List<SimilarContainer<C>> result = new ArrayList<>(candidates.size());
+        for (C candidate : candidates) {
+            result.add(new SimilarContainer<>(candidate, MinHasher.estimateSimilarity(signature, signaturePerContainer.get(candidate))));
+        }
+        result.sort(Comparator.comparingDouble((SimilarContainer<C> similar) -> similar.estimatedSimilarity()).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private void replaceSignature(C container, int[] oldSignature, int[] newSignature) {
+        removeFromBuckets(container, oldSignature);
+        signaturePerContainer.put(container, newSignature);
+        addToBuckets(container, newSignature);
+    }
+
+    private void addToBuckets(C container, int[] signature) {
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(bandKey(signature, band), k -> new ArrayList<>()).add(container);
+        }
+    }
+
+    private void removeFromBuckets(C container, int[] signature) {
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<C>> bandBuckets = buckets.get(band);
+            long key = bandKey(signature, band);
+            List<C> bucket = bandBuckets.get(key);
+            if (bucket != null && bucket.removeIf(c -> c == container) && bucket.isEmpty()) {
+                bandBuckets.remove(key);
+            }
+        }
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int row = band * rowsPerBand; row < (band + 1) * rowsPerBand; row++) {
+            key = key * 0x9E3779B97F4A7C15L + signature[row];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,96 @@
+package hr.java.production.similarity;
+
+import hr.java.production.model.Item;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.SplittableRandom;
+
+/**
+ * Computes MinHash signatures of item sets from the item IDs.
+ * <p>
+ * Every position of a signature holds the minimum of one hash function over all item IDs in the set.
+ * The fraction of positions two signatures agree on estimates the Jaccard similarity of the two sets.
+ * Adding an item only lowers some minimums, so a signature can be updated in O(number of hashes)
+ * without looking at the rest of the set.
+ */
+public class MinHasher {
+    private final long[] seeds;
+
+    /**
+     * Constructs a new hasher with the given number of hash functions.
+     *
+     * @param numHashes The length of the signatures.
+     * @param seed      The seed the hash functions are derived from. Signatures are only comparable if they
+     *                  were computed by hashers with the same length and seed.
+     */
+    public MinHasher(int numHashes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    public int getNumHashes() {
+        return seeds.length;
+    }
+
+    /**
+     * Returns the signature of an empty set, which every item added to it will lower.
+     */
+    public int[] emptySignature() {
+        int[] signature = new int[seeds.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        return signature;
+    }
+
+    public int[] signatureOf(Collection<Item> items) {
+        int[] signature = emptySignature();
+        items.forEach(item -> update(signature, item.getId()));
+        return signature;
+    }
+
+    /**
+     * Lowers the signature by the hashes of a newly added item.
+     *
+     * @param signature The signature to update in place.
+     * @param itemId    The ID of the added item.
+     * @return {@code true} if any position of the signature changed.
+     */
+    public boolean update(int[] signature, long itemId) {
+        boolean changed = false;
+        for (int i = 0; i < seeds.length; i++) {
+            int hash = hash(itemId, seeds[i]);
+            if (hash < signature[i]) {
+                signature[i] = hash;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two sets from their signatures.
+     *
+     * @return The fraction of positions the two signatures agree on, between 0 and 1.
+     */
+    public static double estimateSimilarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i] && a[i] != Integer.MAX_VALUE) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    private static int hash(long itemId, long seed) {
+        // The finalizer of SplitMix64 spreads consecutive IDs over the whole int range.
+        long z = itemId + seed;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (int) (z >>> 33);
+    }
+}
@@ -0,0 +1,12 @@
+package hr.java.production.similarity;
+
+import hr.java.production.model.ItemContainer;
+
+/**
+ * A container found by a similarity search, with its estimated similarity to the query.
+ *
+ * @param container           The similar factory or store.
+ * @param estimatedSimilarity The estimated Jaccard similarity of the item sets, between 0 and 1.
+ */
+public record SimilarContainer<C extends ItemContainer>(C container, double estimatedSimilarity) {
+}
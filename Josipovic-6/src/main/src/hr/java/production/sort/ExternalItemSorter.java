@@ -0,0 +1,275 @@
+package hr.java.production.sort;
+
+import hr.java.production.model.Category;
+import hr.java.production.model.Item;
+import hr.java.production.utility.ItemBinaryCodec;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Sorts more items than fit on the heap by spilling sorted runs to temporary files.
+ * <p>
+ * Items are added one by one. Whenever {@code runSize} items have been collected, they are sorted and written
+ * to a temporary file in the {@link ItemBinaryCodec} format, and the buffer is cleared. {@link #sortedIterator()}
+ * then merges the runs with a heap holding one item per run. At most {@code maxFanIn} runs are open at once:
+ * if there are more, groups of {@code maxFanIn} consecutive runs are first merged into longer runs, pass after
+ * pass, which costs one more read and write of the data per pass.
+ * <p>
+ * So at most {@code runSize} items are on the heap while adding, and while merging at most {@code maxFanIn}
+ * items, {@code maxFanIn} read buffers and one write buffer of {@value #IO_BUFFER_SIZE} bytes each, and
+ * {@code maxFanIn} open files. Items that compare as equal come out in the order they were added.
+ * <p>
+ * The sorter owns its temporary files and deletes them when it is closed.
+ */
+public class ExternalItemSorter implements AutoCloseable {
+    public static final int DEFAULT_MAX_FAN_IN = 64;
+
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final Comparator<Item> comparator;
+    private final int runSize;
+    private final int maxFanIn;
+    private final Map<Long, Category> categoriesPerId;
+    private final Path tempDirectory;
+    private final List<Path> runFiles = new ArrayList<>();
+    private final List<DataInputStream> openRuns = new ArrayList<>();
+    private List<Item> buffer = new ArrayList<>();
+    private boolean sorting;
+
+    /**
+     * Constructs a sorter that spills to the default temporary directory.
+     *
+     * @param comparator The order of the result.
+     * @param runSize    The maximum number of items kept on the heap while adding.
+     * @param categories The categories items may reference, needed to read spilled items back.
+     */
+    public ExternalItemSorter(Comparator<Item> comparator, int runSize, Collection<Category> categories) {
+        this(comparator, runSize, categories, Path.of(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructs a sorter that spills to the given directory and merges at most {@value #DEFAULT_MAX_FAN_IN}
+     * runs at once.
+     *
+     * @param comparator    The order of the result.
+     * @param runSize       The maximum number of items kept on the heap while adding.
+     * @param categories    The categories items may reference, needed to read spilled items back.
+     * @param tempDirectory The directory for the run files.
+     */
+    public ExternalItemSorter(Comparator<Item> comparator, int runSize, Collection<Category> categories, Path tempDirectory) {
+        this(comparator, runSize, categories, tempDirectory, DEFAULT_MAX_FAN_IN);
+    }
+
+    /**
+     * Constructs a sorter that spills to the given directory.
+     *
+     * @param comparator    The order of the result.
+     * @param runSize       The maximum number of items kept on the heap while adding.
+     * @param categories    The categories items may reference, needed to read spilled items back.
+     * @param tempDirectory The directory for the run files.
+     * @param maxFanIn      The maximum number of runs merged, and so open, at once. At least 2.
+     */
+    public ExternalItemSorter(Comparator<Item> comparator, int runSize, Collection<Category> categories, Path tempDirectory,
+                              int maxFanIn) {
+        if (runSize <= 0) {
+            throw new IllegalArgumentException("Run size must be positive: " + runSize);
+        }
+        if (maxFanIn < 2) {
+            throw new IllegalArgumentException("At least two runs must be merged at once: " + maxFanIn);
+        }
+        this.comparator = comparator;
+        this.runSize = runSize;
+        this.maxFanIn = maxFanIn;
+        this.categoriesPerId = new HashMap<>();
+        categories.forEach(category -> categoriesPerId.put(category.getId(), category));
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Adds an item, spilling the buffered items to a new run file once the buffer is full.
+     *
+     * @param item The item to add.
+     * @throws UncheckedIOException If the run file cannot be written.
+     */
+    public void add(Item item) {
+        if (sorting) {
+            throw new IllegalStateException("Items cannot be added after the sorted iterator has been requested.");
+        }
+        buffer.add(item);
+        if (buffer.size() >= runSize) {
+            spill();
+        }
+    }
+
+    public void addAll(Iterable<Item> items) {
+        items.forEach(this::add);
+    }
+
+    /**
+     * Returns the number of run files, which drops once runs have been merged by {@link #sortedIterator()}.
+     *
+     * @return The number of run files.
+     */
+    public int getRunCount() {
+        return runFiles.size();
+    }
+
+    /**
+     * Returns all added items in sorted order. If nothing has been spilled, the items are sorted in memory.
+     * Otherwise runs are first merged until at most {@code maxFanIn} are left. The iterator reads those run files
+     * lazily and throws {@code UncheckedIOException} if reading fails.
+     *
+     * @return An iterator over the sorted items.
+     * @throws UncheckedIOException If an intermediate merge fails.
+     */
+    public Iterator<Item> sortedIterator() {
+        sorting = true;
+        if (runFiles.isEmpty()) {
+            buffer.sort(comparator);
+            return buffer.iterator();
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        buffer = new ArrayList<>();
+        try {
+            while (runFiles.size() > maxFanIn) {
+                mergePass();
+            }
+            return new MergingIterator(runFiles);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes all open runs and deletes the run files.
+     */
+    @Override
+    public void close() {
+        for (DataInputStream run : openRuns) {
+            try {
+                run.close();
+            } catch (IOException ignored) {
+                // The file is deleted below anyway.
+            }
+        }
+        openRuns.clear();
+        for (Path runFile : runFiles) {
+            try {
+                Files.deleteIfExists(runFile);
+            } catch (IOException e) {
+                runFile.toFile().deleteOnExit();
+            }
+        }
+        runFiles.clear();
+    }
+
+    /**
+     * Merges every group of {@code maxFanIn} consecutive runs into one run in place of the group,
+     * so earlier runs keep holding earlier added items and the final merge stays stable.
+     */
+    private void mergePass() throws IOException {
+        // The merged runs are listed behind the current ones as soon as they exist, so close() deletes them if the
+        // pass fails, and the current ones are dropped from the list once the pass is done.
+        int runCount = runFiles.size();
+        for (int groupStart = 0; groupStart < runCount; groupStart += maxFanIn) {
+            List<Path> group = List.copyOf(runFiles.subList(groupStart, Math.min(runCount, groupStart + maxFanIn)));
+            if (group.size() == 1) {
+                runFiles.add(group.getFirst());
+                continue;
+            }
+            Path mergedRun = Files.createTempFile(tempDirectory, "item-run-", ".bin");
+            runFiles.add(mergedRun);
+            MergingIterator merge = new MergingIterator(group);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mergedRun), IO_BUFFER_SIZE))) {
+                out.writeInt(merge.size);
+                while (merge.hasNext()) {
+                    ItemBinaryCodec.write(merge.next(), out);
+                }
+            } finally {
+                merge.close();
+            }
+            for (Path run : group) {
+                Files.deleteIfExists(run);
+            }
+        }
+        runFiles.subList(0, runCount).clear();
+    }
+
+    private void spill() {
+        buffer.sort(comparator);
+        try {
+            Path runFile = Files.createTempFile(tempDirectory, "item-run-", ".bin");
+            runFiles.add(runFile);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile), IO_BUFFER_SIZE))) {
+                out.writeInt(buffer.size());
+                for (Item item : buffer) {
+                    ItemBinaryCodec.write(item, out);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not spill a sorted run to " + tempDirectory, e);
+        }
+        buffer = new ArrayList<>(runSize);
+    }
+
+    /**
+     * Merges the given runs with a heap ordered by the current item of each run, ties broken by run number,
+     * which keeps the merge stable because earlier runs hold earlier added items.
+     */
+    private class MergingIterator implements Iterator<Item> {
+        private final PriorityQueue<RunHead> heap;
+        private final List<DataInputStream> inputs = new ArrayList<>();
+        private int size;
+
+        MergingIterator(List<Path> runs) throws IOException {
+            heap = new PriorityQueue<>(Math.max(1, runs.size()),
+                    Comparator.comparing(RunHead::item, comparator).thenComparingInt(RunHead::runNumber));
+            for (int runNumber = 0; runNumber < runs.size(); runNumber++) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(runNumber)), IO_BUFFER_SIZE));
+                inputs.add(in);
+                openRuns.add(in);
+                int remaining = in.readInt();
+                size += remaining;
+                if (remaining > 0) {
+                    heap.add(new RunHead(ItemBinaryCodec.read(in, categoriesPerId), runNumber, in, remaining - 1));
+                }
+            }
+        }
+
+        void close() throws IOException {
+            for (DataInputStream in : inputs) {
+                openRuns.remove(in);
+                in.close();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public Item next() {
+            RunHead head = heap.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.remaining() > 0) {
+                try {
+                    heap.add(new RunHead(ItemBinaryCodec.read(head.in(), categoriesPerId), head.runNumber(), head.in(), head.remaining() - 1));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read a sorted run", e);
+                }
+            }
+            return head.item();
+        }
+    }
+
+    private record RunHead(Item item, int runNumber, DataInputStream in, int remaining) {
+    }
+}
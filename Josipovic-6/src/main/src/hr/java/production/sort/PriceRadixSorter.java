@@ -0,0 +1,98 @@
+package hr.java.production.sort;
+
+import hr.java.production.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sorts items by their discounted selling price with an LSD radix sort instead of comparisons.
+ * <p>
+ * Each item's discounted price is calculated once and turned into a {@code long} number of cents, so the
+ * discount arithmetic runs n times instead of O(n log n) times as with {@link ProductionSorter}.
+ * The items are then ordered by 16-bit digits of the ID and of the price, from the least significant up,
+ * with one counting pass per digit. Digits that are equal for all items are skipped, so small prices and
+ * IDs need only a few passes. Items with the same price are ordered by ascending ID.
+ */
+public class PriceRadixSorter {
+    private static final int DIGIT_BITS = 16;
+    private static final int RADIX = 1 << DIGIT_BITS;
+
+    /**
+     * Calculates the sort key of an item: its discounted selling price in cents.
+     *
+     * @param item The item.
+     * @return The discounted selling price multiplied by 100.
+     */
+    public static long priceKey(Item item) {
+        return item.getDiscountedSellingPrice().movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Sorts items by ascending discounted selling price, and items with the same price by ascending ID.
+     *
+     * @param items The items to sort. The collection is not modified.
+     * @return A new list of the sorted items.
+     */
+    public static List<Item> sort(Collection<Item> items) {
+        Item[] source = items.toArray(new Item[0]);
+        int n = source.length;
+        long[] prices = new long[n], ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            // Flipping the sign bit makes negative values sort before positive ones as unsigned numbers.
+            prices[i] = priceKey(source[i]) ^ Long.MIN_VALUE;
+            ids[i] = source[i].getId() ^ Long.MIN_VALUE;
+        }
+
+        int[] order = new int[n], buffer = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] counts = new int[RADIX + 1];
+        for (long[] keys : new long[][]{ids, prices}) {
+            for (int shift = 0; shift < Long.SIZE; shift += DIGIT_BITS) {
+                if (countingPass(keys, shift, order, buffer, counts)) {
+                    int[] swap = order;
+                    order = buffer;
+                    buffer = swap;
+                }
+            }
+        }
+
+        List<Item> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(source[order[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Stably distributes the positions in {@code order} into {@code buffer} by one digit of their keys.
+     *
+     * @return {@code false} if all keys share the digit and the pass was skipped.
+     */
+    private static boolean countingPass(long[] keys, int shift, int[] order, int[] buffer, int[] counts) {
+        Arrays.fill(counts, 0);
+        for (long key : keys) {
+            counts[digit(key, shift) + 1]++;
+        }
+        for (int count : counts) {
+            if (count == keys.length) {
+                return false;
+            }
+        }
+        for (int digit = 0; digit < RADIX; digit++) {
+            counts[digit + 1] += counts[digit];
+        }
+        for (int position : order) {
+            buffer[counts[digit(keys[position], shift)]++] = position;
+        }
+        return true;
+    }
+
+    private static int digit(long key, int shift) {
+        return (int) ((key >>> shift) & (RADIX - 1));
+    }
+}
@@ -0,0 +1,127 @@
+package hr.java.production.sort;
+
+import java.util.*;
+
+/**
+ * Selects the smallest and largest elements of a collection without sorting or modifying it.
+ * <p>
+ * The {@code k} smallest elements are found with a bounded heap of size {@code k}, so a selection costs
+ * O(n log k) instead of the O(n log n) of a full sort, and O(n) for a fixed {@code k}.
+ * For {@code k = 1} {@link #minMax(Collection, Comparator)} finds both ends in a single pass.
+ * Ties are resolved like a stable ascending sort would resolve them: among equal elements the smallest
+ * are taken in encounter order and the largest in reverse encounter order.
+ */
+public class TopKSelector {
+
+    /**
+     * The smallest and largest element of a collection.
+     *
+     * @param min The element a stable ascending sort would put first.
+     * @param max The element a stable ascending sort would put last.
+     */
+    public record MinMax<T>(T min, T max) {
+    }
+
+    /**
+     * Finds the smallest and largest element in a single pass over the collection.
+     *
+     * @param elements   The elements to search.
+     * @param comparator The comparator that defines the order.
+     * @return The smallest and largest element, or an empty {@code Optional} if the collection is empty.
+     */
+    public static <T> Optional<MinMax<T>> minMax(Collection<? extends T> elements, Comparator<? super T> comparator) {
+        Iterator<? extends T> iterator = elements.iterator();
+        if (!iterator.hasNext()) {
+            return Optional.empty();
+        }
+        T min = iterator.next(), max = min;
+        while (iterator.hasNext()) {
+            T element = iterator.next();
+            if (comparator.compare(element, min) < 0) {
+                min = element;
+            }
+            if (comparator.compare(element, max) >= 0) {
+                max = element;
+            }
+        }
+        return Optional.of(new MinMax<>(min, max));
+    }
+
+    /**
+     * Returns the {@code k} smallest elements in ascending order.
+     *
+     * @param elements   The elements to select from.
+     * @param k          The maximum number of elements to return.
+     * @param comparator The comparator that defines the order.
+     * @return A new list with at most {@code k} elements, from the smallest up.
+     */
+    public static <T> List<T> smallest(Collection<? extends T> elements, int k, Comparator<? super T> comparator) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // The heap holds the current candidates with the largest on top, ties broken by encounter order,
+        // so the candidate replaced first is always the one a stable sort would put last.
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.min(k, Math.max(1, elements.size())),
+                Comparator.<Ranked<T>, T>comparing(Ranked::element, comparator).thenComparingLong(Ranked::position).reversed());
+        long position = 0;
+        for (T element : elements) {
+            if (heap.size() < k) {
+                heap.add(new Ranked<>(element, position));
+            } else if (comparator.compare(element, heap.peek().element()) < 0) {
+                heap.poll();
+                heap.add(new Ranked<>(element, position));
+            }
+            position++;
+        }
+        List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().element());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Returns the {@code k} largest elements in descending order.
+     *
+     * @param elements   The elements to select from.
+     * @param k          The maximum number of elements to return.
+     * @param comparator The comparator that defines the order.
+     * @return A new list with at most {@code k} elements, from the largest down.
+     */
+    public static <T> List<T> largest(Collection<? extends T> elements, int k, Comparator<? super T> comparator) {
+        List<T> reversedElements = new ArrayList<T>(elements).reversed();
+        return smallest(reversedElements, k, Collections.reverseOrder(comparator));
+    }
+
+    /**
+     * Returns the {@code k} smallest elements of every group, in ascending order.
+     *
+     * @param elementsPerKey The groups to select from. The lists are not modified.
+     * @param k              The maximum number of elements to return per group.
+     * @param comparator     The comparator that defines the order.
+     * @return A new map with the same keys and at most {@code k} elements per key.
+     */
+    public static <K, T> Map<K, List<T>> smallestPerKey(Map<K, ? extends Collection<? extends T>> elementsPerKey, int k, Comparator<? super T> comparator) {
+        Map<K, List<T>> result = new LinkedHashMap<>();
+        elementsPerKey.forEach((key, elements) -> result.put(key, smallest(elements, k, comparator)));
+        return result;
+    }
+
+    /**
+     * Returns the {@code k} largest elements of every group, in descending order.
+     *
+     * @param elementsPerKey The groups to select from. The lists are not modified.
+     * @param k              The maximum number of elements to return per group.
+     * @param comparator     The comparator that defines the order.
+     * @return A new map with the same keys and at most {@code k} elements per key.
+     */
+    public static <K, T> Map<K, List<T>> largestPerKey(Map<K, ? extends Collection<? extends T>> elementsPerKey, int k, Comparator<? super T> comparator) {
+        Map<K, List<T>> result = new LinkedHashMap<>();
+        elementsPerKey.forEach((key, elements) -> result.put(key, largest(elements, k, comparator)));
+        return result;
+    }
+
+    private record Ranked<T>(T element, long position) {
+    }
+}
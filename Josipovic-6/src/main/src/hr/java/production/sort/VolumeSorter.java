@@ -1,11 +1,22 @@
 package hr.java.production.sort;
 
+import hr.java.production.collection.ImmutableSortedArraySet;
 import hr.java.production.model.Item;
 
 import java.io.Serializable;
-import java.util.Comparator;
+import java.util.*;
 
+/**
+ * Sorts items by their volume in descending order, and items with the same volume by name.
+ * <p>
+ * Besides the comparator, which calculates both volumes on every comparison, the class offers a
+ * key-extracting mode: {@link #sortWithPrecomputedKeys(Collection)} calculates each item's volume once as a
+ * {@code long} number of hundredths, and sorts large collections with {@link Arrays#parallelSort(long[])}
+ * on keys that pack the volume together with the item's position.
+ */
 public class VolumeSorter implements Comparator<Item>, Serializable {
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
     @Override
     public int compare(Item i1, Item i2) {
         int volumeComparison = i2.calculateVolume().compareTo(i1.calculateVolume());
@@ -14,4 +25,112 @@ public class VolumeSorter implements Comparator<Item>, Serializable {
         }
         return i1.getName().compareTo(i2.getName());
     }
+
+    /**
+     * Calculates the sort key of an item: its volume, rounded like {@link Item#calculateVolume()}, in hundredths.
+     *
+     * @param item The item.
+     * @return The volume of the item multiplied by 100.
+     */
+    public static long volumeKey(Item item) {
+        return item.calculateVolume().unscaledValue().longValueExact();
+    }
+
+    /**
+     * Sorts items in the order of this comparator, calculating each volume only once.
+     * <p>
+     * Items the comparator considers equal (same volume and name) are kept only once, in the position
+     * of the first one, just like a {@code TreeSet} with this comparator would keep them.
+     *
+     * @param items The items to sort. The collection is not modified.
+     * @return A new list of the sorted items.
+     */
+    public static List<Item> sortWithPrecomputedKeys(Collection<Item> items) {
+        Item[] source = items.toArray(new Item[0]);
+        int n = source.length;
+        long[] keys = new long[n];
+        long minKey = 0, maxKey = 0;
+        for (int i = 0; i < n; i++) {
+            keys[i] = volumeKey(source[i]);
+            minKey = Math.min(minKey, keys[i]);
+            maxKey = Math.max(maxKey, keys[i]);
+        }
+
+        int[] order = sortPositionsByDescendingKey(keys, minKey, maxKey);
+        Item[] sorted = new Item[n];
+        long[] sortedKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = source[order[i]];
+            sortedKeys[i] = keys[order[i]];
+        }
+
+        List<Item> result = new ArrayList<>(n);
+        Comparator<Item> byName = Comparator.comparing(Item::getName);
+        for (int runStart = 0; runStart < n; ) {
+            int runEnd = runStart + 1;
+            while (runEnd < n && sortedKeys[runEnd] == sortedKeys[runStart]) {
+                runEnd++;
+            }
+            if (runEnd - runStart > 1) {
+                Arrays.sort(sorted, runStart, runEnd, byName);
+            }
+            for (int i = runStart; i < runEnd; i++) {
+                if (i == runStart || !sorted[i].getName().equals(sorted[i - 1].getName())) {
+                    result.add(sorted[i]);
+                }
+            }
+            runStart = runEnd;
+        }
+        return result;
+    }
+
+    /**
+     * Builds a {@code TreeSet} ordered by this comparator from presorted items,
+     * so the set is filled in linear time without calculating any volume again.
+     *
+     * @param items The items to put into the set.
+     * @return A new {@code TreeSet} with a {@code VolumeSorter} comparator.
+     */
+    public static TreeSet<Item> toSortedSet(Collection<Item> items) {
+        return new TreeSet<>(ImmutableSortedArraySet.copyOfSorted(sortWithPrecomputedKeys(items), new VolumeSorter()));
+    }
+
+    /**
+     * Returns the positions of the keys ordered by descending key, equal keys in ascending position.
+     * The keys are only packed with their positions if they are all non-negative and small enough;
+     * a negative volume, which {@code FileUtils} does not reject, falls back to comparing the keys.
+     */
+    private static int[] sortPositionsByDescendingKey(long[] keys, long minKey, long maxKey) {
+        int n = keys.length;
+        int positionBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, n - 1));
+        int[] order = new int[n];
+
+        if (minKey >= 0 && maxKey < (1L << (63 - positionBits))) {
+            // The inverted key sorts descending and the position in the low bits keeps equal keys stable.
+            long keyMask = (1L << (63 - positionBits)) - 1;
+            long[] packed = new long[n];
+            for (int i = 0; i < n; i++) {
+                packed[i] = ((keyMask - keys[i]) << positionBits) | i;
+            }
+            if (n >= PARALLEL_THRESHOLD) {
+                Arrays.parallelSort(packed);
+            } else {
+                Arrays.sort(packed);
+            }
+            long positionMask = (1L << positionBits) - 1;
+            for (int i = 0; i < n; i++) {
+                order[i] = (int) (packed[i] & positionMask);
+            }
+        } else {
+            Integer[] positions = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                positions[i] = i;
+            }
+            Arrays.sort(positions, (a, b) -> Long.compare(keys[b], keys[a]));
+            for (int i = 0; i < n; i++) {
+                order[i] = positions[i];
+            }
+        }
+        return order;
+    }
 }
@@ -0,0 +1,210 @@
+package hr.java.production.utility;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Report sink that collects text in a large buffer and writes full buffers on a background thread.
+ * <p>
+ * The calling thread only appends to a {@code StringBuilder}. When the buffer exceeds {@link #BUFFER_SIZE}
+ * characters it is encoded and handed to a single writer thread, so formatting the next part of a long report
+ * overlaps with writing the previous one. At most {@link #MAX_PENDING_BUFFERS} encoded buffers wait
+ * for the writer at a time; when the writer falls behind, the caller blocks instead of piling up memory.
+ * {@link #flush()} waits for the handed over buffers and writes the rest on the calling thread, so a report
+ * shorter than one buffer is written without a thread handoff.
+ * Buffers are written in the order they were handed over, and the sink stops writing at the first failed write.
+ */
+public class AsyncReportSink implements ReportSink {
+    public static final int BUFFER_SIZE = 1 << 16;
+    public static final int MAX_PENDING_BUFFERS = 4;
+
+    private final ByteTarget target;
+    private final String lineSeparator = System.lineSeparator();
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+    private final Semaphore pendingBuffers = new Semaphore(MAX_PENDING_BUFFERS);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "report-sink-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile IOException failure;
+    private boolean closed;
+
+    AsyncReportSink(ByteTarget target) {
+        this.target = target;
+    }
+
+    @Override
+    public synchronized void print(String text) {
+        checkOpen();
+        buffer.append(text);
+        if (buffer.length() >= BUFFER_SIZE) {
+            handOver();
+        }
+    }
+
+    @Override
+    public synchronized void println(String text) {
+        print(text);
+        println();
+    }
+
+    @Override
+    public synchronized void println() {
+        print(lineSeparator);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        // Holding every permit means that no buffer is waiting for the writer or being written.
+        pendingBuffers.acquireUninterruptibly(MAX_PENDING_BUFFERS);
+        try {
+            if (failure == null) {
+                try {
+                    if (!buffer.isEmpty()) {
+                        target.write(encodeBuffer());
+                    }
+                    target.flush();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        } finally {
+            pendingBuffers.release(MAX_PENDING_BUFFERS);
+        }
+        throwIfFailed();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            writer.shutdown();
+            try {
+                target.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("An IO Exception occurred while closing the report target.", e);
+            }
+        }
+    }
+
+    private void handOver() {
+        ByteBuffer bytes = encodeBuffer();
+        pendingBuffers.acquireUninterruptibly();
+        writer.execute(() -> {
+            try {
+                if (failure == null) {
+                    target.write(bytes);
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                pendingBuffers.release();
+            }
+        });
+    }
+
+    private ByteBuffer encodeBuffer() {
+        ByteBuffer bytes = target.charset().encode(CharBuffer.wrap(buffer));
+        buffer.setLength(0);
+        return bytes;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The report sink has been closed.");
+        }
+    }
+
+    private void throwIfFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("An IO Exception occurred while writing the report.", failure);
+        }
+    }
+
+    /**
+     * Where the encoded bytes of a report end up.
+     */
+    interface ByteTarget {
+        Charset charset();
+
+        void write(ByteBuffer bytes) throws IOException;
+
+        void flush() throws IOException;
+
+        void close() throws IOException;
+
+        /**
+         * Writes to {@code System.out} as it is when the bytes are written, in its charset when the text is encoded,
+         * so the sink follows {@code System.setOut}.
+         */
+        static ByteTarget console() {
+            return new ByteTarget() {
+                @Override
+                public Charset charset() {
+                    return System.out.charset();
+                }
+
+                @Override
+                public void write(ByteBuffer bytes) {
+                    System.out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    PrintStream stream = System.out;
+                    stream.flush();
+                    if (stream.checkError()) {
+                        throw new IOException("The console stream reported an error.");
+                    }
+                }
+
+                @Override
+                public void close() {
+                    System.out.flush();
+                }
+            };
+        }
+
+        static ByteTarget of(FileChannel channel, Charset charset) {
+            return new ByteTarget() {
+                @Override
+                public Charset charset() {
+                    return charset;
+                }
+
+                @Override
+                public void write(ByteBuffer bytes) throws IOException {
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() throws IOException {
+                    channel.close();
+                }
+            };
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package hr.java.production.utility;
 
+import hr.java.production.collection.ConcurrentAppendList;
+import hr.java.production.collection.ImmutableSortedArraySet;
 import hr.java.production.enumeration.*;
 import hr.java.production.exception.CityNotSupportedException;
 import hr.java.production.exception.IdenticalItemChoiceException;
 import hr.java.production.exception.InvalidStoreTypeException;
 import hr.java.production.genericsi.FoodStore;
 import hr.java.production.genericsi.TechnicalStore;
+import hr.java.production.index.ContainerReverseIndex;
+import hr.java.production.jfr.FileReadEvent;
+import hr.java.production.jfr.SerializationEvent;
+import hr.java.production.metrics.MetricsRegistry;
 import hr.java.production.model.*;
 import hr.java.production.sort.VolumeSorter;
 import org.slf4j.Logger;
@@ -13,22 +19,28 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
 public class FileUtils {
     private static final Logger logger = LoggerFactory.getLogger(FileUtils.class);
+    private static final MetricsRegistry metrics = MetricsRegistry.getDefault();
 
 
     public static List<Category> inputCategories() {
         List<Category> categories = new ArrayList<>();
         File file = new File(FilePath.CATEGORIES.getPath());
+        FileReadEvent fileReadEvent = new FileReadEvent();
+        fileReadEvent.begin();
+        long startNanos = System.nanoTime();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             Optional<String> idOptional;
             while ((idOptional = Optional.ofNullable(reader.readLine())).isPresent()) {
-
+                fileReadEvent.records++;
 
                 Long id = Long.parseLong(idOptional.get());
                 String name = reader.readLine();
@@ -44,16 +56,45 @@ public class FileUtils {
             logger.error(msg, e);
         }
 
+        commitFileRead(fileReadEvent, file, startNanos);
         return categories;
     }
 
     public static List<Item> inputItems(List<Category> categories) {
         List<Item> items = new ArrayList<>();
+        forEachItem(categories, items::add);
+
+        // The arguments are calculated eagerly, so the loop only runs when the messages are logged.
+        if (logger.isInfoEnabled()) {
+            items.forEach(item -> {
+                if (item instanceof Edible e) {
+                    logger.info("Kilocalories in {}: {}", item.getName(), e.calculateKilocalories());
+                    logger.info("Price (with {}% discount) for {}: {}", item.getDiscount().discountAmount(), item.getName(), e.calculatePrice());
+                }
+            });
+        }
+
+
+        return items;
+    }
+
+    /**
+     * Reads the items one by one and hands each of them to the consumer, without keeping them in a list.
+     * Used to process catalogs that do not fit on the heap, e.g. with an {@code ExternalItemSorter}.
+     *
+     * @param categories The categories the items can reference.
+     * @param consumer   Receives every item read from the file.
+     */
+    public static void forEachItem(List<Category> categories, Consumer<Item> consumer) {
         File file = new File(FilePath.ITEMS.getPath());
+        FileReadEvent fileReadEvent = new FileReadEvent();
+        fileReadEvent.begin();
+        long startNanos = System.nanoTime();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             Optional<String> idOptional;
             while ((idOptional = Optional.ofNullable(reader.readLine())).isPresent()) {
+                fileReadEvent.records++;
                 Optional<Item> newItemOptional = Optional.empty();
 
                 Long id = Long.parseLong(idOptional.get());
@@ -62,7 +103,7 @@ public class FileUtils {
                 Long categoryId = Long.parseLong(reader.readLine());
                 Optional<Category> categoryOptional = categories.stream().filter(c -> c.getId().equals(categoryId)).findFirst();
                 if (categoryOptional.isEmpty()) {
-                    logger.warn("No category found for ID: {" + categoryId + "}");
+                    logger.warn("No category found for ID: {{}}", categoryId);
                     continue;
                 }
 
@@ -89,9 +130,7 @@ public class FileUtils {
                 } else {
                     newItemOptional = Optional.of(new Item(id, name, categoryOptional.get(), width, height, length, productionCost, sellingPrice, discount));
                 }
-                newItemOptional.ifPresent(items::add);
-
-
+                newItemOptional.ifPresent(consumer);
             }
         } catch (FileNotFoundException e) {
             String msg = "File not found at the specified location: " + FilePath.ITEMS.getPath() + ". Please check the file path and ensure the file exists.";
@@ -101,26 +140,37 @@ public class FileUtils {
             logger.error(msg, e);
         }
 
-        items.forEach(item -> {
-            if (item instanceof Edible e) {
-                logger.info("Kilocalories in " + item.getName() + ": " + e.calculateKilocalories());
-                logger.info("Price (with " + item.getDiscount().discountAmount() + "% discount) for " + item.getName() + ": " + e.calculatePrice());
-            }
-        });
+        commitFileRead(fileReadEvent, file, startNanos);
+    }
 
+    public static List<Factory> inputFactories(List<Item> items) {
+        return readFactories(items, Optional.empty());
+    }
 
-        return items;
+    /**
+     * Reads the factories and registers each of them in the given reverse index.
+     *
+     * @param items        The items the factories can reference.
+     * @param reverseIndex The index that maps item IDs to the factories producing them.
+     * @return The factories read from the file.
+     */
+    public static List<Factory> inputFactories(List<Item> items, ContainerReverseIndex reverseIndex) {
+        return readFactories(items, Optional.of(reverseIndex));
     }
 
-    public static List<Factory> inputFactories(List<Item> items) {
+    private static List<Factory> readFactories(List<Item> items, Optional<ContainerReverseIndex> reverseIndex) {
         List<Factory> factories = new ArrayList<>();
         File file = new File(FilePath.FACTORIES.getPath());
+        FileReadEvent fileReadEvent = new FileReadEvent();
+        fileReadEvent.begin();
+        long startNanos = System.nanoTime();
 
         List<Address> addresses = inputAddresses();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             Optional<String> idOptional;
             while ((idOptional = Optional.ofNullable(reader.readLine())).isPresent()) {
+                fileReadEvent.records++;
                 Optional<Factory> newFactoryOptional;
 
                 Long id = Long.parseLong(idOptional.get());
@@ -135,7 +185,10 @@ public class FileUtils {
                 Set<Item> factoryItems = itemChoicesOptional.map(itemChoices -> processItemChoices(itemChoices, items)).orElse(new HashSet<>());
 
                 newFactoryOptional = Optional.of(new Factory(id, name, address, factoryItems));
-                newFactoryOptional.ifPresent(factories::add);
+                newFactoryOptional.ifPresent(factory -> {
+                    reverseIndex.ifPresent(index -> index.register(factory));
+                    factories.add(factory);
+                });
             }
         } catch (FileNotFoundException e) {
             String msg = "File not found at the specified location: " + FilePath.FACTORIES.getPath() + ". Please check the file path and ensure the file exists.";
@@ -145,16 +198,62 @@ public class FileUtils {
             logger.error(msg, e);
         }
 
+        commitFileRead(fileReadEvent, file, startNanos);
         return factories;
     }
 
     public static List<Store> inputStores(List<Item> items) {
+        return readStores(items, Optional.empty(), false);
+    }
+
+    /**
+     * Reads the stores and optionally freezes their item sets, without registering them in a reverse index.
+     *
+     * @param items          The items the stores can reference.
+     * @param freezeItemSets Whether the item set of every store is replaced by an immutable copy after loading.
+     * @return The stores read from the file.
+     */
+    public static List<Store> inputStores(List<Item> items, boolean freezeItemSets) {
+        return readStores(items, Optional.empty(), freezeItemSets);
+    }
+
+    /**
+     * Reads the stores and registers each of them in the given reverse index.
+     *
+     * @param items        The items the stores can reference.
+     * @param reverseIndex The index that maps item IDs to the stores selling them.
+     * @return The stores read from the file.
+     */
+    public static List<Store> inputStores(List<Item> items, ContainerReverseIndex reverseIndex) {
+        return inputStores(items, reverseIndex, false);
+    }
+
+    /**
+     * Reads the stores, registers each of them in the given reverse index and optionally freezes their item sets.
+     * <p>
+     * A frozen item set is an {@code ImmutableSortedArraySet} in the same volume order, which takes less memory
+     * and iterates faster than the {@code TreeSet} it replaces, but rejects further changes.
+     *
+     * @param items          The items the stores can reference.
+     * @param reverseIndex   The index that maps item IDs to the stores selling them.
+     * @param freezeItemSets Whether the item set of every store is replaced by an immutable copy after loading.
+     * @return The stores read from the file.
+     */
+    public static List<Store> inputStores(List<Item> items, ContainerReverseIndex reverseIndex, boolean freezeItemSets) {
+        return readStores(items, Optional.of(reverseIndex), freezeItemSets);
+    }
+
+    private static List<Store> readStores(List<Item> items, Optional<ContainerReverseIndex> reverseIndex, boolean freezeItemSets) {
         List<Store> stores = new ArrayList<>();
         File file = new File(FilePath.STORES.getPath());
+        FileReadEvent fileReadEvent = new FileReadEvent();
+        fileReadEvent.begin();
+        long startNanos = System.nanoTime();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             Optional<String> idOptional;
             while ((idOptional = Optional.ofNullable(reader.readLine())).isPresent()) {
+                fileReadEvent.records++;
                 Store newStore;
 
                 Long id = Long.parseLong(idOptional.get());
@@ -163,17 +262,20 @@ public class FileUtils {
 
                 Optional<String> itemChoicesOptional = Optional.ofNullable(reader.readLine());
 
-                Set<Item> storeItems = new TreeSet<>(new VolumeSorter());
-                storeItems.addAll(itemChoicesOptional.map(itemChoices -> processItemChoices(itemChoices, items)).orElse(new TreeSet<>()));
+                TreeSet<Item> storeItems = VolumeSorter.toSortedSet(itemChoicesOptional.map(itemChoices -> processItemChoices(itemChoices, items)).orElse(new HashSet<>()));
 
                 try {
                     Integer storeType = Integer.parseInt(reader.readLine());
                     newStore = createStoreBasedOnType(storeType, id, name, webAddress, storeItems);
+                    reverseIndex.ifPresent(index -> index.register(newStore));
                     if (newStore instanceof TechnicalStore) {
                         storeItems.stream().filter(item -> item instanceof Technical).forEach(item -> ((TechnicalStore<Technical>) newStore).addTechnicalStoreItem((Technical) item));
                     } else if (newStore instanceof FoodStore) {
                         storeItems.stream().filter(item -> item instanceof Edible).forEach(item -> ((FoodStore<Edible>) newStore).addFoodStoreItem((Edible) item));
                     }
+                    if (freezeItemSets) {
+                        newStore.setItems(ImmutableSortedArraySet.copyOf(storeItems));
+                    }
                     stores.add(newStore);
                 } catch (InvalidStoreTypeException e) {
                     logger.warn(e.getMessage());
@@ -187,36 +289,90 @@ public class FileUtils {
             logger.error(msg, e);
         }
 
+        commitFileRead(fileReadEvent, file, startNanos);
         return stores;
     }
 
 
     public static <T extends Serializable> void serializeList(List<T> objectsList, FilePath path) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path.getPath()))) {
+        serializeList(objectsList, Path.of(path.getPath()));
+    }
+
+    /**
+     * Serializes a list to any file, e.g. a temporary one, instead of one of the application's files.
+     *
+     * @param objectsList The list to serialize.
+     * @param path        The file to write, replacing its previous contents.
+     */
+    public static <T extends Serializable> void serializeList(List<T> objectsList, Path path) {
+        SerializationEvent serializationEvent = new SerializationEvent();
+        serializationEvent.begin();
+        long startNanos = System.nanoTime();
+
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(path.toFile()))) {
             oos.writeObject(objectsList);
         } catch (IOException e) {
-            String msg = "SERIALIZATION ERROR: An IO Exception occurred while writing to the file: " + path.getPath() + ". This might be due to issues with file permissions, file being in use, or other IO related problems.";
+            String msg = "SERIALIZATION ERROR: An IO Exception occurred while writing to the file: " + path + ". This might be due to issues with file permissions, file being in use, or other IO related problems.";
             logger.error(msg, e);
         }
+
+        commitSerialization(serializationEvent, "serialize", path, objectsList.size(), startNanos);
     }
 
     public static <T extends Serializable> List<T> deserializeList(FilePath path) {
+        return deserializeList(Path.of(path.getPath()));
+    }
+
+    /**
+     * Deserializes a list from any file written by {@link #serializeList(List, Path)}.
+     *
+     * @param path The file to read.
+     * @return The deserialized list, or an empty list if the file cannot be read.
+     */
+    public static <T extends Serializable> List<T> deserializeList(Path path) {
         List<T> deserializedList = new ArrayList<>();
+        SerializationEvent serializationEvent = new SerializationEvent();
+        serializationEvent.begin();
+        long startNanos = System.nanoTime();
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path.getPath()))) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(path.toFile()))) {
             deserializedList.addAll((List<T>) ois.readObject());
         } catch (FileNotFoundException e) {
-            String msg = "File not found at the specified location: " + path.getPath() + ". Please check the file path and ensure the file exists.";
+            String msg = "File not found at the specified location: " + path + ". Please check the file path and ensure the file exists.";
             logger.error(msg, e);
         } catch (IOException e) {
-            String msg = "SERIALIZATION ERROR: An IO Exception occurred while reading from the file: " + path.getPath() + ". This might be due to issues with file permissions, file being in use, or other IO related problems.";
+            String msg = "SERIALIZATION ERROR: An IO Exception occurred while reading from the file: " + path + ". This might be due to issues with file permissions, file being in use, or other IO related problems.";
             logger.error(msg, e);
         } catch (ClassNotFoundException e) {
             logger.error("Class not found during deserialization", e);
         }
+
+        commitSerialization(serializationEvent, "deserialize", path, deserializedList.size(), startNanos);
         return deserializedList;
     }
 
+    private static void commitFileRead(FileReadEvent event, File file, long startNanos) {
+        metrics.histogram("fileutils.read." + file.getName()).recordSince(startNanos);
+        metrics.counter("fileutils.read." + file.getName() + ".records").add(event.records);
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.bytes = file.length();
+            event.commit();
+        }
+    }
+
+    private static void commitSerialization(SerializationEvent event, String operation, Path path, int entities, long startNanos) {
+        metrics.histogram("fileutils." + operation).recordSince(startNanos);
+        metrics.counter("fileutils." + operation + ".entities").add(entities);
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.path = path.toString();
+            event.entities = entities;
+            event.bytes = path.toFile().length();
+            event.commit();
+        }
+    }
+
 
     private static Set<Item> processItemChoices(String itemChoices, List<Item> items) {
         Set<Item> chosenItems = new HashSet<>();
@@ -254,13 +410,13 @@ public class FileUtils {
                 if (storeItems.stream().noneMatch(item -> item instanceof Technical)) {
                     throw new InvalidStoreTypeException("Cannot choose Technical Store if there are no Technical items.");
                 }
-                yield (new TechnicalStore<>(id, name, webAddress, storeItems, new ArrayList<>()));
+                yield (new TechnicalStore<>(id, name, webAddress, storeItems, new ConcurrentAppendList<>()));
             }
             case FOOD_STORE -> {
                 if (storeItems.stream().noneMatch(item -> item instanceof Edible)) {
                     throw new InvalidStoreTypeException("Cannot choose Food Store if there are no Edible items.");
                 }
-                yield (new FoodStore<>(id, name, webAddress, storeItems, new ArrayList<>()));
+                yield (new FoodStore<>(id, name, webAddress, storeItems, new ConcurrentAppendList<>()));
             }
             default -> (new Store(id, name, webAddress, storeItems));  //Ovo je potrebno, ne micati
         };
@@ -269,10 +425,14 @@ public class FileUtils {
     private static List<Address> inputAddresses() {
         List<Address> addresses = new ArrayList<>();
         File file = new File(FilePath.ADDRESSES.getPath());
+        FileReadEvent fileReadEvent = new FileReadEvent();
+        fileReadEvent.begin();
+        long startNanos = System.nanoTime();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             Optional<String> streetOptional;
             while ((streetOptional = Optional.ofNullable(reader.readLine())).isPresent()) {
+                fileReadEvent.records++;
                 Optional<Address> newAddressOptional;
 
                 String street = streetOptional.get();
@@ -295,6 +455,7 @@ public class FileUtils {
             logger.error(msg, e);
         }
 
+        commitFileRead(fileReadEvent, file, startNanos);
         return addresses;
     }
 
@@ -316,7 +477,7 @@ public class FileUtils {
         boolean isDuplicate = categories.stream().anyMatch(c -> c.equals(categoryInput));
 
         if (isDuplicate) {
-            logger.warn("Entered category [" + categoryInput.getName() + "] has already been added. Input ignored.");
+            logger.warn("Entered category [{}] has already been added. Input ignored.", categoryInput.getName());
             return Optional.empty();
         } else {
             return Optional.of(categoryInput);
@@ -0,0 +1,315 @@
+package hr.java.production.utility;
+
+import hr.java.production.model.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Live view of the inventory aggregates that {@link InventoryAnalyzer} otherwise recomputes on every call.
+ * <p>
+ * The view keeps running sums and counts for the average price and volume of the catalog, and ordered
+ * structures for the store with the cheapest item and the most caloric food. It subscribes to every item it
+ * tracks as an {@link ItemChangeListener}, so price, discount, dimension and weight changes are applied
+ * incrementally. Averages are answered in O(1), extremes in O(log n), and every update costs O(log n)
+ * per affected store.
+ * <p>
+ * Items are added to and removed from the catalog with {@link #addItem(Item)} and {@link #removeItem(Item)}.
+ * Stores are tracked with {@link #addStore(Store)}, after which the view also listens to them as an
+ * {@link ItemContainerListener}: a store whose item set is replaced, e.g. when {@code FileUtils} freezes it,
+ * is tracked with its new set, and an item added to a store is tracked once it is in the store's item set.
+ * Items and stores are kept by identity, since their {@code hashCode} changes together with their values.
+ * All public methods are synchronized, because item setters may fire from any thread.
+ */
+public class InventoryAggregateView implements ItemChangeListener, ItemContainerListener {
+    private final Map<Item, ItemFigures> figuresPerItem = new IdentityHashMap<>();
+    private final Set<Item> catalogItems = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Item, List<Store>> storesPerItem = new IdentityHashMap<>();
+    private final Map<Store, List<Item>> itemsPerStore = new IdentityHashMap<>();
+    private final Map<Store, TreeMap<BigDecimal, Integer>> discountedPricesPerStore = new IdentityHashMap<>();
+    private final TreeMap<BigDecimal, List<Store>> storesByCheapestItemPrice = new TreeMap<>();
+    private final TreeMap<Integer, List<Item>> edibleItemsByKilocalories = new TreeMap<>();
+    private BigDecimal priceSum = BigDecimal.ZERO, volumeSum = BigDecimal.ZERO;
+
+    /**
+     * Creates a view over the given catalog items and stores.
+     *
+     * @param items  The items of the catalog.
+     * @param stores The stores whose items are considered when looking for the cheapest item.
+     * @return A new view with all items and stores tracked.
+     */
+    public static InventoryAggregateView of(Collection<Item> items, Collection<Store> stores) {
+        InventoryAggregateView view = new InventoryAggregateView();
+        items.forEach(view::addItem);
+        stores.forEach(view::addStore);
+        return view;
+    }
+
+    /**
+     * Adds an item to the catalog aggregates. Adding an item that is already in the catalog has no effect.
+     *
+     * @param item The item to add.
+     */
+    public synchronized void addItem(Item item) {
+        if (!catalogItems.add(item)) {
+            return;
+        }
+        addCatalogFigures(track(item));
+    }
+
+    /**
+     * Removes an item from the catalog aggregates. Stores that contain the item keep it.
+     *
+     * @param item The item to remove.
+     */
+    public synchronized void removeItem(Item item) {
+        if (!catalogItems.remove(item)) {
+            return;
+        }
+        removeCatalogFigures(figuresPerItem.get(item));
+        untrackIfUnreferenced(item);
+    }
+
+    /**
+     * Starts tracking the items of a store for the cheapest item query and listening to its changes.
+     *
+     * @param store The store to add.
+     */
+    public synchronized void addStore(Store store) {
+        if (discountedPricesPerStore.containsKey(store)) {
+            return;
+        }
+        trackStore(store, store.getItems());
+        store.addContainerListener(this);
+    }
+
+    /**
+     * Stops tracking a store.
+     *
+     * @param store The store to remove.
+     */
+    public synchronized void removeStore(Store store) {
+        if (!discountedPricesPerStore.containsKey(store)) {
+            return;
+        }
+        store.removeContainerListener(this);
+        untrackStore(store);
+    }
+
+    /**
+     * Tracks an item added to a tracked store, if it is in the store's item set and not tracked for it yet.
+     *
+     * @param container The store the item was added to.
+     * @param item      The added item.
+     */
+    @Override
+    public synchronized void itemAdded(ItemContainer container, Item item) {
+        if (!(container instanceof Store store) || !discountedPricesPerStore.containsKey(store)
+                || !store.getItems().contains(item) || containsIdentical(itemsPerStore.get(store), item)) {
+            return;
+        }
+        itemsPerStore.get(store).add(item);
+        addStoreItem(store, item);
+    }
+
+    /**
+     * Tracks a tracked store with its new item set.
+     *
+     * @param container The store whose items were replaced.
+     * @param oldItems  The previous items of the store.
+     * @param newItems  The current items of the store.
+     */
+    @Override
+    public synchronized void itemsReplaced(ItemContainer container, Set<Item> oldItems, Set<Item> newItems) {
+        if (container instanceof Store store && discountedPricesPerStore.containsKey(store)) {
+            untrackStore(store);
+            trackStore(store, newItems == null ? Set.of() : newItems);
+        }
+    }
+
+    /**
+     * Applies the changed values of a tracked item to all aggregates that contain it.
+     *
+     * @param item The item whose value has changed.
+     */
+    @Override
+    public synchronized void itemChanged(Item item) {
+        ItemFigures oldFigures = figuresPerItem.get(item);
+        if (oldFigures == null) {
+            return;
+        }
+        ItemFigures newFigures = ItemFigures.of(item);
+        figuresPerItem.put(item, newFigures);
+
+        if (catalogItems.contains(item)) {
+            removeCatalogFigures(oldFigures);
+            addCatalogFigures(newFigures);
+        }
+        if (oldFigures.discountedPrice().compareTo(newFigures.discountedPrice()) != 0) {
+            storesPerItem.getOrDefault(item, List.of()).forEach(store -> replaceStorePrice(store, oldFigures.discountedPrice(), newFigures.discountedPrice()));
+        }
+    }
+
+    public synchronized int getItemCount() {
+        return catalogItems.size();
+    }
+
+    /**
+     * Returns the average selling price of the catalog items, rounded like
+     * {@link InventoryAnalyzer#calculateAverageItemPrice(List)}.
+     *
+     * @return The average selling price, or zero if the catalog is empty.
+     */
+    public synchronized BigDecimal getAverageItemPrice() {
+        return average(priceSum);
+    }
+
+    /**
+     * Returns the average volume of the catalog items, rounded like
+     * {@link InventoryAnalyzer#calculateAverageItemVolume(List)}.
+     *
+     * @return The average volume, or zero if the catalog is empty.
+     */
+    public synchronized BigDecimal getAverageItemVolume() {
+        return average(volumeSum);
+    }
+
+    /**
+     * Finds the store that sells the item with the lowest discounted selling price.
+     * If several stores share the lowest price, the one that reached it first is returned.
+     *
+     * @return The store with the cheapest item, or an empty {@code Optional} if no tracked store has items.
+     */
+    public synchronized Optional<Store> findStoreWithCheapestItem() {
+        return Optional.ofNullable(storesByCheapestItemPrice.firstEntry()).map(entry -> entry.getValue().getFirst());
+    }
+
+    /**
+     * Finds the catalog food item with the most kilocalories.
+     * If several items share the highest value, the one that reached it first is returned.
+     *
+     * @return The most caloric food item, or an empty {@code Optional} if there are no edible items in the catalog.
+     */
+    public synchronized Optional<Item> findMostCaloricFood() {
+        return Optional.ofNullable(edibleItemsByKilocalories.lastEntry()).map(entry -> entry.getValue().getFirst());
+    }
+
+    private BigDecimal average(BigDecimal sum) {
+        if (catalogItems.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        return sum.divide(BigDecimal.valueOf(catalogItems.size()), RoundingMode.CEILING);
+    }
+
+    private void trackStore(Store store, Set<Item> items) {
+        discountedPricesPerStore.put(store, new TreeMap<>());
+        List<Item> storeItems = new ArrayList<>(items);
+        itemsPerStore.put(store, storeItems);
+        storeItems.forEach(item -> addStoreItem(store, item));
+    }
+
+    private void untrackStore(Store store) {
+        TreeMap<BigDecimal, Integer> discountedPrices = discountedPricesPerStore.remove(store);
+        if (!discountedPrices.isEmpty()) {
+            removeFromBucket(storesByCheapestItemPrice, discountedPrices.firstKey(), store);
+        }
+        for (Item item : itemsPerStore.remove(store)) {
+            List<Store> stores = storesPerItem.get(item);
+            stores.removeIf(s -> s == store);
+            if (stores.isEmpty()) {
+                storesPerItem.remove(item);
+                untrackIfUnreferenced(item);
+            }
+        }
+    }
+
+    private void addStoreItem(Store store, Item item) {
+        ItemFigures figures = track(item);
+        storesPerItem.computeIfAbsent(item, k -> new ArrayList<>()).add(store);
+        TreeMap<BigDecimal, Integer> discountedPrices = discountedPricesPerStore.get(store);
+        BigDecimal oldCheapest = discountedPrices.isEmpty() ? null : discountedPrices.firstKey();
+        discountedPrices.merge(figures.discountedPrice(), 1, Integer::sum);
+        BigDecimal newCheapest = discountedPrices.firstKey();
+        if (oldCheapest == null || oldCheapest.compareTo(newCheapest) != 0) {
+            if (oldCheapest != null) {
+                removeFromBucket(storesByCheapestItemPrice, oldCheapest, store);
+            }
+            storesByCheapestItemPrice.computeIfAbsent(newCheapest, k -> new ArrayList<>()).add(store);
+        }
+    }
+
+    private static boolean containsIdentical(List<Item> items, Item item) {
+        for (Item i : items) {
+            if (i == item) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ItemFigures track(Item item) {
+        ItemFigures figures = figuresPerItem.get(item);
+        if (figures == null) {
+            figures = ItemFigures.of(item);
+            figuresPerItem.put(item, figures);
+            item.addChangeListener(this);
+        }
+        return figures;
+    }
+
+    private void untrackIfUnreferenced(Item item) {
+        if (!catalogItems.contains(item) && !storesPerItem.containsKey(item)) {
+            figuresPerItem.remove(item);
+            item.removeChangeListener(this);
+        }
+    }
+
+    private void addCatalogFigures(ItemFigures figures) {
+        priceSum = priceSum.add(figures.sellingPrice());
+        volumeSum = volumeSum.add(figures.volume());
+        if (figures.kilocalories() != null) {
+            edibleItemsByKilocalories.computeIfAbsent(figures.kilocalories(), k -> new ArrayList<>()).add(figures.item());
+        }
+    }
+
+    private void removeCatalogFigures(ItemFigures figures) {
+        priceSum = priceSum.subtract(figures.sellingPrice());
+        volumeSum = volumeSum.subtract(figures.volume());
+        if (figures.kilocalories() != null) {
+            removeFromBucket(edibleItemsByKilocalories, figures.kilocalories(), figures.item());
+        }
+    }
+
+    private void replaceStorePrice(Store store, BigDecimal oldPrice, BigDecimal newPrice) {
+        TreeMap<BigDecimal, Integer> discountedPrices = discountedPricesPerStore.get(store);
+        BigDecimal oldCheapest = discountedPrices.firstKey();
+
+        discountedPrices.computeIfPresent(oldPrice, (price, count) -> count == 1 ? null : count - 1);
+        discountedPrices.merge(newPrice, 1, Integer::sum);
+
+        BigDecimal newCheapest = discountedPrices.firstKey();
+        if (oldCheapest.compareTo(newCheapest) != 0) {
+            removeFromBucket(storesByCheapestItemPrice, oldCheapest, store);
+            storesByCheapestItemPrice.computeIfAbsent(newCheapest, k -> new ArrayList<>()).add(store);
+        }
+    }
+
+    private static <K, V> void removeFromBucket(TreeMap<K, List<V>> buckets, K key, V value) {
+        List<V> bucket = buckets.get(key);
+        if (bucket != null && bucket.removeIf(v -> v == value) && bucket.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    /**
+     * Values of an item captured when it was last added or changed, so its old contribution can be subtracted.
+     */
+    private record ItemFigures(Item item, BigDecimal sellingPrice, BigDecimal volume, BigDecimal discountedPrice,
+                               Integer kilocalories) {
+        static ItemFigures of(Item item) {
+            Integer kilocalories = item instanceof Edible edible ? edible.calculateKilocalories() : null;
+            return new ItemFigures(item, item.getSellingPrice(), item.calculateVolume(), item.getDiscountedSellingPrice(), kilocalories);
+        }
+    }
+}
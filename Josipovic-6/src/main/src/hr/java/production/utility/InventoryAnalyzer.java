@@ -1,5 +1,9 @@
 package hr.java.production.utility;
 
+import hr.java.production.index.ItemRangeIndexes;
+import hr.java.production.jfr.AnalyzerQueryEvent;
+import hr.java.production.metrics.LatencyHistogram;
+import hr.java.production.metrics.MetricsRegistry;
 import hr.java.production.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,47 +24,86 @@ import java.util.stream.Collectors;
  */
 public class InventoryAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(InventoryAnalyzer.class);
+    private static final Query CALCULATE_AVERAGE_ITEM_PRICE = new Query("calculateAverageItemPrice");
+    private static final Query CALCULATE_AVERAGE_ITEM_VOLUME = new Query("calculateAverageItemVolume");
+    private static final Query CALCULATE_AVERAGE_PRICE_FOR_ABOVE_AVERAGE_VOLUME_ITEMS = new Query("calculateAveragePriceForAboveAverageVolumeItems");
+    private static final Query CALCULATE_AVERAGE_PRICE_FOR_ABOVE_AVERAGE_VOLUME_ITEMS_INDEXED = new Query("calculateAveragePriceForAboveAverageVolumeItemsIndexed");
+    private static final Query MAP_ITEMS_BY_CATEGORY = new Query("mapItemsByCategory");
+    private static final Query MAP_ITEMS_BY_INTERFACE_TYPE = new Query("mapItemsByInterfaceType");
+    private static final Query FIND_FACTORY_WITH_LARGEST_VOLUME_OF_AN_ITEM = new Query("findFactoryWithLargestVolumeOfAnItem");
+    private static final Query FIND_STORE_WITH_CHEAPEST_ITEM = new Query("findStoreWithCheapestItem");
+    private static final Query FIND_MOST_CALORIC_FOOD = new Query("findMostCaloricFood");
+    private static final Query FIND_HIGHEST_PRICED_FOOD = new Query("findHighestPricedFood");
+    private static final Query FIND_LAPTOP_WITH_SHORTEST_WARRANTY = new Query("findLaptopWithShortestWarranty");
 
 
 
 
 
     public static BigDecimal calculateAverageItemPrice(List<Item> items) {
-        return items.stream()
+        QueryRecording query = QueryRecording.begin();
+        BigDecimal averagePrice = items.stream()
                 .map(Item::getSellingPrice)
                 .reduce(BigDecimal::add)
                 .map(total -> total.divide(BigDecimal.valueOf(items.size()), RoundingMode.CEILING))
                 .orElse(BigDecimal.ZERO);
+        query.end(CALCULATE_AVERAGE_ITEM_PRICE, items.size());
+        return averagePrice;
     }
 
     public static BigDecimal calculateAverageItemVolume(List<Item> items) {
-        return items.stream()
+        QueryRecording query = QueryRecording.begin();
+        BigDecimal averageVolume = items.stream()
                 .map(Item::calculateVolume)
                 .reduce(BigDecimal::add)
                 .map(total -> total.divide(BigDecimal.valueOf(items.size()), RoundingMode.CEILING))
                 .orElse(BigDecimal.ZERO);
+        query.end(CALCULATE_AVERAGE_ITEM_VOLUME, items.size());
+        return averageVolume;
     }
 
     public static BigDecimal calculateAveragePriceForAboveAverageVolumeItems(List<Item> items) {
+        QueryRecording query = QueryRecording.begin();
         BigDecimal averageVolume = calculateAverageItemVolume(items);
 
         List<Item> aboveAverageVolumeItems = items.stream()
                 .filter(item -> item.calculateVolume().compareTo(averageVolume) > 0)
                 .collect(Collectors.toList());
 
-        return calculateAverageItemPrice(aboveAverageVolumeItems);
+        BigDecimal averagePrice = calculateAverageItemPrice(aboveAverageVolumeItems);
+        query.end(CALCULATE_AVERAGE_PRICE_FOR_ABOVE_AVERAGE_VOLUME_ITEMS, items.size());
+        return averagePrice;
+    }
+
+    /**
+     * Calculates the average price of items with an above-average volume without scanning the catalog.
+     * <p>
+     * The average volume is read from the live aggregates, and the matching items are taken from the volume index.
+     *
+     * @param aggregateView The live aggregates of the catalog.
+     * @param indexes       The range indexes over the same catalog.
+     * @return The average price of the items with an above-average volume.
+     */
+    public static BigDecimal calculateAveragePriceForAboveAverageVolumeItems(InventoryAggregateView aggregateView, ItemRangeIndexes indexes) {
+        QueryRecording query = QueryRecording.begin();
+        BigDecimal averagePrice = calculateAverageItemPrice(indexes.findItemsWithVolumeAbove(aggregateView.getAverageItemVolume()));
+        query.end(CALCULATE_AVERAGE_PRICE_FOR_ABOVE_AVERAGE_VOLUME_ITEMS_INDEXED, aggregateView.getItemCount());
+        return averagePrice;
     }
 
 
     public static Map<Category, List<Item>> mapItemsByCategory(List<Item> items) {
+        QueryRecording query = QueryRecording.begin();
         Map<Category, List<Item>> itemsPerCategoryMap = new HashMap<>();
         for (var i : items) {
             itemsPerCategoryMap.computeIfAbsent(i.getCategory(), k -> new ArrayList<>()).add(i);
         }
+        query.end(MAP_ITEMS_BY_CATEGORY, items.size());
         return itemsPerCategoryMap;
     }
 
     public static Map<String, List<Item>> mapItemsByInterfaceType(List<Item> items) {
+        QueryRecording query = QueryRecording.begin();
         Map<String, List<Item>> itemsPerInterfaceMap = new HashMap<>();
         for (Item i : items) {
             String key;
@@ -69,6 +112,7 @@ public class InventoryAnalyzer {
             else continue;
             itemsPerInterfaceMap.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
         }
+        query.end(MAP_ITEMS_BY_INTERFACE_TYPE, items.size());
         return itemsPerInterfaceMap;
     }
 
@@ -82,6 +126,7 @@ public class InventoryAnalyzer {
      * @return The factory with the largest volume of an item.
      */
     public static Factory findFactoryWithLargestVolumeOfAnItem(List<Factory> factories) {
+        QueryRecording query = QueryRecording.begin();
         Factory bestFactory = factories.getFirst();
         BigDecimal largestVolume = BigDecimal.valueOf(0);
         for (Factory f : factories) {
@@ -92,6 +137,7 @@ public class InventoryAnalyzer {
                 }
             }
         }
+        query.end(FIND_FACTORY_WITH_LARGEST_VOLUME_OF_AN_ITEM, factories.size());
         return bestFactory;
     }
 
@@ -107,6 +153,7 @@ public class InventoryAnalyzer {
      * defined in the {@code Edible} interface does. Might want to change that in the future.
      */
     public static Store findStoreWithCheapestItem(List<Store> stores) {
+        QueryRecording query = QueryRecording.begin();
         Store bestStore = stores.getFirst();
         BigDecimal cheapestSellingPrice = BigDecimal.valueOf(Double.MAX_VALUE);
 
@@ -118,6 +165,7 @@ public class InventoryAnalyzer {
                 }
             }
         }
+        query.end(FIND_STORE_WITH_CHEAPEST_ITEM, stores.size());
         return bestStore;
     }
 
@@ -131,6 +179,7 @@ public class InventoryAnalyzer {
      * @return The most caloric food item.
      */
     public static Item findMostCaloricFood(List<Item> items) {
+        QueryRecording query = QueryRecording.begin();
         Item mostCaloric = items.getFirst();
         int maxCalories = -1;
         for (Item i : items) {
@@ -146,6 +195,7 @@ public class InventoryAnalyzer {
             System.out.println("There are no food products among items. Returning the first item in array.");
             logger.error("There are no food products among items. Returning the first item in array. " + "Can't calculate the food product with the most calories because no instances of Interface Edible have been added.");
         }
+        query.end(FIND_MOST_CALORIC_FOOD, items.size());
         return mostCaloric;
     }
 
@@ -159,6 +209,7 @@ public class InventoryAnalyzer {
      * @return The highest priced food item.
      */
     public static Item findHighestPricedFood(List<Item> items) {
+        QueryRecording query = QueryRecording.begin();
         Item mostExpensive = items.getFirst();
         BigDecimal highestPrice = BigDecimal.valueOf(-1);
         for (Item i : items) {
@@ -174,6 +225,7 @@ public class InventoryAnalyzer {
             System.out.println("There are no food products among items. Returning the first item in array.");
             logger.error("There are no food products among items. Returning the first item in array. " + "Can't calculate the food product with the highest price because no instances of Interface Edible have been added.");
         }
+        query.end(FIND_HIGHEST_PRICED_FOOD, items.size());
         return mostExpensive;
     }
 
@@ -187,6 +239,7 @@ public class InventoryAnalyzer {
      * @return The laptop with the shortest warranty.
      */
     public static Item findLaptopWithShortestWarranty(List<Item> items) {
+        QueryRecording query = QueryRecording.begin();
         Item shortestWarrantyLaptop = items.getFirst();
         Integer minWarranty = Integer.MAX_VALUE;
 
@@ -203,9 +256,46 @@ public class InventoryAnalyzer {
             System.out.println("There are no laptops among items. Returning the first item in array.");
             logger.error("There are no laptops among items. Returning the first item in array. " + "Can't find the laptop with the shortest warranty because no instances of Interface Technical have been added.");
         }
+        query.end(FIND_LAPTOP_WITH_SHORTEST_WARRANTY, items.size());
         return shortestWarrantyLaptop;
     }
 
+    /**
+     * An analyzer query and its {@code analyzer.<query>} latency histogram, which is looked up once.
+     */
+    private record Query(String name, LatencyHistogram histogram) {
+        Query(String name) {
+            this(name, MetricsRegistry.getDefault().histogram("analyzer." + name));
+        }
+    }
+
+    /**
+     * Measures one query, both as a JFR event and in the latency histogram of the query.
+     */
+    private static final class QueryRecording {
+        private final AnalyzerQueryEvent event = new AnalyzerQueryEvent();
+        private final long startNanos;
+
+        private QueryRecording() {
+            event.begin();
+            startNanos = System.nanoTime();
+        }
+
+        static QueryRecording begin() {
+            return new QueryRecording();
+        }
+
+        void end(Query query, int inputSize) {
+            query.histogram().recordSince(startNanos);
+            event.end();
+            if (event.shouldCommit()) {
+                event.query = query.name();
+                event.inputSize = inputSize;
+                event.commit();
+            }
+        }
+    }
+
 
 
 }
@@ -1,101 +1,303 @@
 package hr.java.production.utility;
 
+import hr.java.production.enumeration.PriceSortStrategy;
+import hr.java.production.enumeration.RenderMode;
+import hr.java.production.join.FactoryStoreJoin;
+import hr.java.production.metrics.LatencyHistogram;
+import hr.java.production.metrics.MetricsRegistry;
 import hr.java.production.model.Category;
+import hr.java.production.model.Factory;
 import hr.java.production.model.Item;
 import hr.java.production.model.ItemContainer;
 import hr.java.production.model.NamedEntity;
+import hr.java.production.model.Store;
+import hr.java.production.sort.PriceRadixSorter;
 import hr.java.production.sort.ProductionSorter;
+import hr.java.production.sort.TopKSelector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class InventoryReportPrinter {
     private static final Logger logger = LoggerFactory.getLogger(InventoryReportPrinter.class);
+    public static final int PARALLEL_BATCH_SIZE = 1 << 10;
+    private static volatile ReportSink reportSink = ReportSink.console();
+    private static final LatencyHistogram PRINT_NAMES_LATENCY = reportHistogram("printNames");
+    private static final LatencyHistogram PRINT_DISCOUNTED_ITEMS_LATENCY = reportHistogram("printDiscountedItems");
+    private static final LatencyHistogram PRINT_ITEM_NAMES_IN_CONTAINERS_LATENCY = reportHistogram("printItemNamesInContainers");
+    private static final LatencyHistogram PRINT_CONTAINERS_WITH_ABOVE_AVERAGE_ITEM_COUNT_LATENCY = reportHistogram("printContainersWithAboveAverageItemCount");
+    private static final LatencyHistogram PRINT_CONTAINERS_WITH_ITEM_VOLUMES_LATENCY = reportHistogram("printContainersWithItemVolumes");
+    private static final LatencyHistogram PRINT_CHEAPEST_AND_PRICIEST_ITEMS_BY_KEY_LATENCY = reportHistogram("printCheapestAndPriciestItemsByKey");
+    private static final LatencyHistogram PRINT_ITEM_VOLUMES_LATENCY = reportHistogram("printItemVolumes");
+    private static final LatencyHistogram PRINT_ITEMS_SORTED_BY_PRICE_LATENCY = reportHistogram("printItemsSortedByPrice");
+    private static final LatencyHistogram PRINT_SUPPLY_CHAIN_LATENCY = reportHistogram("printSupplyChain");
+
+    /**
+     * Replaces the sink all printing methods write to. The previous sink is flushed but not closed.
+     *
+     * @param sink The new sink, e.g. {@link ReportSink#toFile(java.nio.file.Path, java.nio.charset.Charset)}.
+     */
+    public static synchronized void setReportSink(ReportSink sink) {
+        reportSink.flush();
+        reportSink = sink;
+    }
+
+    public static ReportSink getReportSink() {
+        return reportSink;
+    }
 
     public static <T extends NamedEntity> void printNames(Collection<T> entityCollection){
-        System.out.println(entityCollection.stream().map(NamedEntity::getName).collect(Collectors.joining(", ")));
+        long startNanos = System.nanoTime();
+        writeNames(entityCollection);
+        finishReport(PRINT_NAMES_LATENCY, startNanos);
     }
 
 
     public static void printDiscountedItems(List<Item> items) {
-        System.out.print("Discounted items: ");
+        long startNanos = System.nanoTime();
+        reportSink.print("Discounted items: ");
         List<Item> discountedItems = items.stream()
                 .filter(i -> i.getDiscount().discountAmount().compareTo(BigDecimal.ZERO) > 0)
                 .collect(Collectors.toList());
 
         if (discountedItems.isEmpty()) {
-            System.out.println("No discounted items found");
+            reportSink.println("No discounted items found");
         } else {
-            printNames(discountedItems);
+            writeNames(discountedItems);
         }
+        finishReport(PRINT_DISCOUNTED_ITEMS_LATENCY, startNanos);
     }
 
 
 
     public static void printItemNamesInContainers(List<? extends ItemContainer> containers) {
-        containers.forEach(container -> {
-            System.out.print(container.getName() + " has " + container.getItems().size() + " items: ");
-            printNames(container.getItems());
-        });
+        printItemNamesInContainers(containers, RenderMode.SEQUENTIAL);
+    }
+
+    /**
+     * Prints the names of the items in every container, one line per container.
+     *
+     * @param containers The containers to print, in the order they are printed in.
+     * @param mode       Whether the lines are formatted on the calling thread or in parallel.
+     *                   The output is the same in both modes.
+     */
+    public static void printItemNamesInContainers(List<? extends ItemContainer> containers, RenderMode mode) {
+        long startNanos = System.nanoTime();
+        printSections(containers, mode, InventoryReportPrinter::renderItemNames);
+        finishReport(PRINT_ITEM_NAMES_IN_CONTAINERS_LATENCY, startNanos);
     }
 
 
 
     public static <T extends ItemContainer> void printContainersWithAboveAverageItemCount(List<T> containers) {
+        long startNanos = System.nanoTime();
         double averageNumberOfItemsInContainers = containers.stream()
                 .mapToInt(store -> store.getItems().size())
                 .average()
                 .orElse(0);
 
-        System.out.println("Average number of items per entity: " + averageNumberOfItemsInContainers);
+        reportSink.println("Average number of items per entity: " + averageNumberOfItemsInContainers);
 
         List<T> containersWithAboveAverageItems = containers.stream()
                 .filter(store -> store.getItems().size() > averageNumberOfItemsInContainers)
                 .toList();
 
-        System.out.print("Entities in production chain with above-average number of items: ");
+        reportSink.print("Entities in production chain with above-average number of items: ");
         if (containersWithAboveAverageItems.isEmpty()) {
-            System.out.println("There are no entities with an above-average number of items.");
+            reportSink.println("There are no entities with an above-average number of items.");
             logger.info("There are no entities with an above-average number of items.");
         } else {
-            containersWithAboveAverageItems.forEach(store -> System.out.println(store.getName() + " - Number of Items: " + store.getItems().size()));
+            containersWithAboveAverageItems.forEach(store -> reportSink.println(store.getName() + " - Number of Items: " + store.getItems().size()));
         }
 
+        finishReport(PRINT_CONTAINERS_WITH_ABOVE_AVERAGE_ITEM_COUNT_LATENCY, startNanos);
     }
 
 
     public static <T extends ItemContainer> void printContainersWithItemVolumes(List<T> containers) {
-        containers.forEach(container -> {
-            System.out.println(container.getName() + ": ");
-            container.getItems().forEach(item ->
-                    System.out.println(" - " + item.getName() + " [Volume: [" + item.calculateVolume() + "]]"));
-        });
+        printContainersWithItemVolumes(containers, RenderMode.SEQUENTIAL);
     }
 
+    /**
+     * Prints every container followed by the volumes of its items, in the order the container iterates them.
+     *
+     * @param containers The containers to print, in the order they are printed in.
+     * @param mode       Whether the sections are formatted on the calling thread or in parallel.
+     *                   The output is the same in both modes.
+     */
+    public static <T extends ItemContainer> void printContainersWithItemVolumes(List<T> containers, RenderMode mode) {
+        long startNanos = System.nanoTime();
+        printSections(containers, mode, InventoryReportPrinter::renderItemVolumes);
+        finishReport(PRINT_CONTAINERS_WITH_ITEM_VOLUMES_LATENCY, startNanos);
+    }
 
 
+
+    /**
+     * Prints the items of every key together with the most and least expensive one.
+     * <p>
+     * The extremes are found in a single pass over each list, so the lists are neither sorted nor modified.
+     *
+     * @param itemsPerKeyMap The items grouped by key.
+     */
     public static void printCheapestAndPriciestItemsByKey(Map<?, List<Item>> itemsPerKeyMap) {
-        itemsPerKeyMap.forEach((key, valueItems) -> {
-            valueItems.sort(new ProductionSorter());
-            Item mostExpensive = valueItems.getLast(), leastExpensive = valueItems.getFirst();
+        long startNanos = System.nanoTime();
+        itemsPerKeyMap.forEach((key, valueItems) -> TopKSelector.minMax(valueItems, new ProductionSorter()).ifPresent(minMax -> {
+            Item mostExpensive = minMax.max(), leastExpensive = minMax.min();
 
             String mostExpensiveString = mostExpensive.getName() + " [" + mostExpensive.getDiscountedSellingPrice() + "]";
             String leastExpensiveString = leastExpensive.getName() + " [" + leastExpensive.getDiscountedSellingPrice() + "]";
 
-            String keyName = key instanceof Category ? ((Category) key).getName() : key.toString();
+            String keyName = getKeyName(key);
 
-            System.out.print("Key = [" + keyName + "]: Values = ");
-            printNames(valueItems);
+            reportSink.print("Key = [" + keyName + "]: Values = ");
+            writeNames(valueItems);
 
             String msg = "Key = [" + keyName + "]: Most expensive: " + mostExpensiveString + ", Least expensive: " + leastExpensiveString;
-            System.out.println(msg);
+            reportSink.println(msg);
+            logger.debug("Key = [{}]: Most expensive: {}, Least expensive: {}", keyName, mostExpensiveString, leastExpensiveString);
+        }));
+        finishReport(PRINT_CHEAPEST_AND_PRICIEST_ITEMS_BY_KEY_LATENCY, startNanos);
+    }
+
+    /**
+     * Prints the {@code k} most and least expensive items of every key, e.g. the 10 cheapest items per category.
+     * <p>
+     * The items are selected with bounded heaps, so the lists are neither sorted nor modified.
+     *
+     * @param itemsPerKeyMap The items grouped by key.
+     * @param k              The number of items to print from each end.
+     */
+    public static void printCheapestAndPriciestItemsByKey(Map<?, List<Item>> itemsPerKeyMap, int k) {
+        long startNanos = System.nanoTime();
+        ProductionSorter sorter = new ProductionSorter();
+        itemsPerKeyMap.forEach((key, valueItems) -> {
+            String keyName = getKeyName(key);
+
+            String msg = "Key = [" + keyName + "]: " + k + " most expensive: " + formatItemPrices(TopKSelector.largest(valueItems, k, sorter))
+                    + ", " + k + " least expensive: " + formatItemPrices(TopKSelector.smallest(valueItems, k, sorter));
+            reportSink.println(msg);
             logger.debug(msg);
         });
+        finishReport(PRINT_CHEAPEST_AND_PRICIEST_ITEMS_BY_KEY_LATENCY, startNanos);
+    }
+
+    /**
+     * Prints the volume of every item as the iterator produces it, without collecting the items first.
+     * Meant for the ordered output of an {@code ExternalItemSorter} over catalogs that do not fit on the heap.
+     *
+     * @param items The items to print, already in the order they should be printed in.
+     */
+    public static void printItemVolumes(Iterator<Item> items) {
+        long startNanos = System.nanoTime();
+        items.forEachRemaining(item -> reportSink.println(renderItemVolume(item)));
+        finishReport(PRINT_ITEM_VOLUMES_LATENCY, startNanos);
+    }
+
+    /**
+     * Prints all items from the cheapest to the priciest by discounted selling price.
+     *
+     * @param items    The items to print. The list is not modified.
+     * @param strategy The sorting algorithm to use. With {@code RADIX}, items with the same price are ordered by ID,
+     *                 with {@code COMPARATOR} they keep their order from the list.
+     */
+    public static void printItemsSortedByPrice(List<Item> items, PriceSortStrategy strategy) {
+        long startNanos = System.nanoTime();
+        List<Item> sortedItems = switch (strategy) {
+            case COMPARATOR -> {
+                List<Item> copy = new ArrayList<>(items);
+                copy.sort(new ProductionSorter());
+                yield copy;
+            }
+            case RADIX -> PriceRadixSorter.sort(items);
+        };
+        reportSink.println("Items sorted by price: " + formatItemPrices(sortedItems));
+        finishReport(PRINT_ITEMS_SORTED_BY_PRICE_LATENCY, startNanos);
+    }
+
+    /**
+     * Prints every factory and store pair that shares items, with the volume and price totals of the shared items.
+     *
+     * @param factories The factories to pair.
+     * @param stores    The stores to pair.
+     */
+    public static void printSupplyChain(List<Factory> factories, List<Store> stores) {
+        long startNanos = System.nanoTime();
+        FactoryStoreJoin.joinToList(factories, stores).forEach(link -> {
+            reportSink.print(link.factory().getName() + " -> " + link.store().getName() + " [Total volume: " + link.totalVolume()
+                    + ", Total price: " + link.totalDiscountedPrice() + "]: ");
+            writeNames(link.sharedItems());
+        });
+        finishReport(PRINT_SUPPLY_CHAIN_LATENCY, startNanos);
+    }
+
+    /**
+     * Writes one section per element in the order of the list. Both modes render the sections with the same function.
+     * In parallel mode, the sections of a batch are rendered in parallel before the batch is written, and batches of
+     * {@link #PARALLEL_BATCH_SIZE} limit how many rendered sections are held in memory at once.
+     */
+    private static <T> void printSections(List<T> elements, RenderMode mode, Function<? super T, String> renderer) {
+        if (mode == RenderMode.SEQUENTIAL) {
+            elements.forEach(element -> reportSink.print(renderer.apply(element)));
+            return;
+        }
+        for (int from = 0; from < elements.size(); from += PARALLEL_BATCH_SIZE) {
+            List<T> batch = elements.subList(from, Math.min(elements.size(), from + PARALLEL_BATCH_SIZE));
+            String[] sections = batch.parallelStream().map(renderer).toArray(String[]::new);
+            for (String section : sections) {
+                reportSink.print(section);
+            }
+        }
+    }
+
+    private static String renderItemNames(ItemContainer container) {
+        return container.getName() + " has " + container.getItems().size() + " items: "
+                + container.getItems().stream().map(NamedEntity::getName).collect(Collectors.joining(", ")) + System.lineSeparator();
+    }
+
+    private static String renderItemVolumes(ItemContainer container) {
+        StringBuilder section = new StringBuilder(container.getName()).append(": ").append(System.lineSeparator());
+        container.getItems().forEach(item -> section.append(renderItemVolume(item)).append(System.lineSeparator()));
+        return section.toString();
+    }
+
+    private static String renderItemVolume(Item item) {
+        return " - " + item.getName() + " [Volume: [" + item.calculateVolume() + "]]";
+    }
+
+    private static LatencyHistogram reportHistogram(String report) {
+        return MetricsRegistry.getDefault().histogram("report." + report);
+    }
+
+    /**
+     * Flushes the sink, so the report is on the target when the printing method returns,
+     * and records the duration of the report in its {@code report.<name>} latency histogram.
+     */
+    private static void finishReport(LatencyHistogram latency, long startNanos) {
+        reportSink.flush();
+        latency.recordSince(startNanos);
+    }
+
+    private static <T extends NamedEntity> void writeNames(Collection<T> entityCollection) {
+        reportSink.println(entityCollection.stream().map(NamedEntity::getName).collect(Collectors.joining(", ")));
+    }
+
+    private static String getKeyName(Object key) {
+        return key instanceof Category ? ((Category) key).getName() : key.toString();
+    }
+
+    private static String formatItemPrices(List<Item> items) {
+        return items.stream()
+                .map(item -> item.getName() + " [" + item.getDiscountedSellingPrice() + "]")
+                .collect(Collectors.joining(", "));
     }
 
 }
@@ -0,0 +1,110 @@
+package hr.java.production.utility;
+
+import hr.java.production.model.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Reads and writes items in a compact binary format.
+ * <p>
+ * Unlike Java serialization, a record holds no class descriptors and no copy of the category:
+ * it starts with a type tag, followed by the ID, name, category ID, the decimal values of the item and
+ * the weight or warranty of the subclass. Decimals are stored as a scale byte and a {@code long} unscaled value,
+ * or as text if they do not fit. Categories are resolved by ID when an item is read.
+ */
+public class ItemBinaryCodec {
+    private static final byte ITEM = 0, PIZZA = 1, CHICKEN_NUGGETS = 2, LAPTOP = 3;
+    private static final byte TEXT_DECIMAL = Byte.MIN_VALUE;
+    private static final long NO_CATEGORY = Long.MIN_VALUE;
+
+    /**
+     * Writes an item.
+     *
+     * @param item The item to write.
+     * @param out  The output to write to.
+     * @throws IOException If writing to the output fails.
+     */
+    public static void write(Item item, DataOutput out) throws IOException {
+        byte type = switch (item) {
+            case Pizza p -> PIZZA;
+            case ChickenNuggets c -> CHICKEN_NUGGETS;
+            case Laptop l -> LAPTOP;
+            default -> ITEM;
+        };
+        out.writeByte(type);
+        out.writeLong(item.getId());
+        out.writeUTF(item.getName());
+        out.writeLong(item.getCategory() == null ? NO_CATEGORY : item.getCategory().getId());
+        writeDecimal(item.getWidth(), out);
+        writeDecimal(item.getHeight(), out);
+        writeDecimal(item.getLength(), out);
+        writeDecimal(item.getProductionCost(), out);
+        writeDecimal(item.getSellingPrice(), out);
+        writeDecimal(item.getDiscount().discountAmount(), out);
+
+        switch (item) {
+            case Pizza pizza -> writeDecimal(pizza.getWeightInKG(), out);
+            case ChickenNuggets chickenNuggets -> writeDecimal(chickenNuggets.getWeightInKG(), out);
+            case Laptop laptop -> out.writeInt(laptop.getWarrantyYears());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Reads an item written by {@link #write(Item, DataOutput)}.
+     *
+     * @param in              The input to read from.
+     * @param categoriesPerId The categories the item may reference, by ID.
+     * @return The item.
+     * @throws IOException If reading fails, the input ends, or the category of the item is unknown.
+     */
+    public static Item read(DataInput in, Map<Long, Category> categoriesPerId) throws IOException {
+        byte type = in.readByte();
+        Long id = in.readLong();
+        String name = in.readUTF();
+        long categoryId = in.readLong();
+        Category category = null;
+        if (categoryId != NO_CATEGORY) {
+            category = categoriesPerId.get(categoryId);
+            if (category == null) {
+                throw new IOException("No category found for ID: {" + categoryId + "}");
+            }
+        }
+        BigDecimal width = readDecimal(in), height = readDecimal(in), length = readDecimal(in);
+        BigDecimal productionCost = readDecimal(in), sellingPrice = readDecimal(in);
+        Discount discount = new Discount(readDecimal(in));
+
+        return switch (type) {
+            case PIZZA -> new Pizza(id, name, category, width, height, length, productionCost, sellingPrice, discount, readDecimal(in));
+            case CHICKEN_NUGGETS -> new ChickenNuggets(id, name, category, width, height, length, productionCost, sellingPrice, discount, readDecimal(in));
+            case LAPTOP -> new Laptop(id, name, category, width, height, length, productionCost, sellingPrice, discount, in.readInt());
+            case ITEM -> new Item(id, name, category, width, height, length, productionCost, sellingPrice, discount);
+            default -> throw new IOException("Unknown item type tag: " + type);
+        };
+    }
+
+    private static void writeDecimal(BigDecimal value, DataOutput out) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE && value.scale() > TEXT_DECIMAL && value.scale() <= Byte.MAX_VALUE) {
+            out.writeByte(value.scale());
+            out.writeLong(unscaled.longValue());
+        } else {
+            out.writeByte(TEXT_DECIMAL);
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        byte scale = in.readByte();
+        if (scale == TEXT_DECIMAL) {
+            return new BigDecimal(in.readUTF());
+        }
+        return BigDecimal.valueOf(in.readLong(), scale);
+    }
+}
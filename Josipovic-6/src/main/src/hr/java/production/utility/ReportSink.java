@@ -0,0 +1,68 @@
+package hr.java.production.utility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Destination of the text written by {@link InventoryReportPrinter}.
+ * <p>
+ * Text is buffered by the sink and may be written on another thread, so it only becomes visible
+ * on the target after {@link #flush()}. Line separators and the charset match what
+ * {@code System.out.println} would produce, so the bytes on the target are the same.
+ */
+public interface ReportSink extends AutoCloseable {
+
+    /**
+     * Creates a sink that writes to {@code System.out} in its charset. The stream is looked up on every write,
+     * so text printed after {@code System.setOut} goes to the new stream.
+     *
+     * @return A new console sink.
+     */
+    static ReportSink console() {
+        return new AsyncReportSink(AsyncReportSink.ByteTarget.console());
+    }
+
+    /**
+     * Creates a sink that writes to a file through a {@code FileChannel}, replacing the previous contents of the file.
+     *
+     * @param path    The file to write to.
+     * @param charset The charset the text is encoded in.
+     * @return A new file sink, which has to be closed to release the file.
+     * @throws IOException If the file cannot be opened for writing.
+     */
+    static ReportSink toFile(Path path, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new AsyncReportSink(AsyncReportSink.ByteTarget.of(channel, charset));
+    }
+
+    /**
+     * Appends text to the report.
+     *
+     * @param text The text to append.
+     * @throws IllegalStateException If the sink has been closed.
+     */
+    void print(String text);
+
+    void println(String text);
+
+    void println();
+
+    /**
+     * Writes all buffered text to the target and waits until it has been written.
+     *
+     * @throws UncheckedIOException If writing to the target has failed, now or after an earlier call.
+     */
+    void flush();
+
+    /**
+     * Flushes the sink and releases the target. The console is flushed but never closed.
+     *
+     * @throws UncheckedIOException If writing to the target has failed.
+     */
+    @Override
+    void close();
+}